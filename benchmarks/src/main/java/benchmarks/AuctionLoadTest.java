@@ -0,0 +1,319 @@
+package benchmarks;
+
+import Network.AuctionClient;
+import Network.AuctionCommand;
+import Network.AuctionServer;
+import Network.BidResponse;
+import controller.AuctionData;
+import model.Player;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless load test: an AuctionServer (in this process, on 127.0.0.1) with N simulated clients.
+//
+// Some clients are bidders placing bids at a fixed rate on the latest state they received, the rest
+// only watch. The server's broadcasts are time-stamped as they leave the engine and again when each
+// client has decoded them, which gives the fan-out latency of every broadcast to every client.
+// Stalled clients connect but never read, to show that they do not hold up the others (they are evicted).
+// In virtual mode the server's connections and the simulated clients' readers are virtual threads, which
+// is compared with threaded mode by the platform thread count and the resident memory of the process.
+//
+// usage: java --enable-preview -cp benchmarks/target/benchmarks.jar benchmarks.AuctionLoadTest
+//            [--clients 200] [--bidders 50] [--rate 2] [--seconds 30] [--mode nio|threaded|virtual] [--players 100]
+//            [--stalled 0] [--ticks server|client]
+//
+// With --ticks client the engine sends each lot's deadline once and the clients count down themselves
+// (AuctionEngine.setClientCountdown); compare the broadcasts and bytes sent with --ticks server.
+public class AuctionLoadTest {
+
+    private final int clientCount;
+    private final int bidderCount;
+    private final double bidsPerSecond;           // per bidder
+    private final int seconds;
+    private final AuctionServer.Mode mode;
+    private final int playerCount;
+    private final int stalledCount;
+    private final boolean clientCountdown;
+
+    // broadcast key -> System.nanoTime() when the server broadcast it
+    private final Map<Long, Long> broadcastTimes = new ConcurrentHashMap<>();
+    private final List<SimulatedClient> clients = new ArrayList<>();
+    private final List<Socket> stalledClients = new ArrayList<>();
+
+    private final AtomicLong bidsSent = new AtomicLong();
+    private final Map<BidResponse.Result, AtomicLong> bidResults = new ConcurrentHashMap<>();
+
+    public AuctionLoadTest(int clientCount, int bidderCount, double bidsPerSecond, int seconds,
+                           AuctionServer.Mode mode, int playerCount, int stalledCount, boolean clientCountdown) {
+        this.clientCount = clientCount;
+        this.bidderCount = Math.min(bidderCount, clientCount);
+        this.bidsPerSecond = bidsPerSecond;
+        this.seconds = seconds;
+        this.mode = mode;
+        this.playerCount = playerCount;
+        this.stalledCount = stalledCount;
+        this.clientCountdown = clientCountdown;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+
+        new AuctionLoadTest(
+                Integer.parseInt(options.getOrDefault("clients", "200")),
+                Integer.parseInt(options.getOrDefault("bidders", "50")),
+                Double.parseDouble(options.getOrDefault("rate", "2")),
+                Integer.parseInt(options.getOrDefault("seconds", "30")),
+                AuctionServer.Mode.valueOf(options.getOrDefault("mode", "nio").toUpperCase()),
+                Integer.parseInt(options.getOrDefault("players", "100")),
+                Integer.parseInt(options.getOrDefault("stalled", "0")),
+                options.getOrDefault("ticks", "server").equalsIgnoreCase("client")
+        ).run();
+    }
+
+
+
+
+    // **************************************************** //
+    //                      RUN                             //
+    // **************************************************** //
+
+    public void run() throws Exception {
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));        // server and clients log every message
+
+        AuctionServer server = AuctionServer.create(mode);
+        server.getEngine().setClientCountdown(clientCountdown);
+        server.setBroadcastObserver(data -> broadcastTimes.putIfAbsent(key(data), System.nanoTime()));
+        Thread serverThread = new Thread(server::start, "auction-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        waitForServer();
+
+        report.println("Connecting " + clientCount + " clients (" + bidderCount + " bidders) to the " + mode + " server...");
+        for (int i = 0; i < clientCount; i++) {
+            SimulatedClient client = new SimulatedClient(i < bidderCount ? "Bidder " + i : null);
+            client.connection = new AuctionClient(client, mode == AuctionServer.Mode.VIRTUAL);
+            clients.add(client);
+        }
+        for (int i = 0; i < stalledCount; i++) {
+            Socket socket = new Socket();
+            socket.setReceiveBufferSize(4096);              // fills up after a few frames
+            socket.connect(new InetSocketAddress("127.0.0.1", 12345));
+            stalledClients.add(socket);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long serverCpuBefore = serverCpuNanos(threads);
+        long processCpuBefore = processCpuNanos();
+        long startNanos = System.nanoTime();
+
+        server.getEngine().handleCommand(AuctionCommand.start(roster()));
+
+        ScheduledExecutorService load = Executors.newScheduledThreadPool(4, r -> {
+            Thread thread = new Thread(r, "load-bidder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMicros = (long) (1_000_000 / bidsPerSecond);
+        Random random = new Random(7);
+        for (SimulatedClient client : clients) {
+            if (client.bidderName == null) continue;
+            load.scheduleAtFixedRate(client::bid, random.nextInt((int) Math.max(1, periodMicros)), periodMicros, TimeUnit.MICROSECONDS);
+        }
+
+        long maxHeap = 0;
+        long maxRss = 0;
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < endNanos) {
+            maxHeap = Math.max(maxHeap, memory.getHeapMemoryUsage().getUsed());
+            maxRss = Math.max(maxRss, residentKb());
+            Thread.sleep(250);
+        }
+        load.shutdownNow();
+        Thread.sleep(1000);                     // let the last responses and broadcasts arrive
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long serverCpu = serverCpuNanos(threads) - serverCpuBefore;
+        long processCpu = processCpuNanos() - processCpuBefore;
+        long heapNow = memory.getHeapMemoryUsage().getUsed();
+
+        printReport(report, server, elapsedNanos, serverCpu, processCpu, maxHeap, heapNow, maxRss, threads);
+
+        for (SimulatedClient client : clients) client.connection.disconnect();
+        for (Socket socket : stalledClients) socket.close();
+        server.stop();
+    }
+
+    private void printReport(PrintStream report, AuctionServer server, long elapsedNanos, long serverCpu,
+                             long processCpu, long maxHeap, long heapNow, long maxRss, ThreadMXBean threads) {
+        long[] latencies = clients.stream().flatMapToLong(c -> Arrays.stream(c.latencies, 0, c.samples)).sorted().toArray();
+        long connected = clients.stream().filter(c -> c.connection.isConnected()).count();
+        long responses = bidResults.values().stream().mapToLong(AtomicLong::get).sum();
+        double elapsed = elapsedNanos / 1e9;
+
+        report.println();
+        report.println("========== AUCTION LOAD TEST ==========");
+        report.printf("mode %s, %d clients (%d still connected), %d bidders at %.1f bids/s, %d stalled, %s ticks, %.1f s%n",
+                mode, clientCount, connected, bidderCount, bidsPerSecond, stalledCount,
+                clientCountdown ? "client" : "server", elapsed);
+        report.println();
+        report.println("broadcasts:     " + broadcastTimes.size());
+        report.println("deliveries:     " + latencies.length);
+        report.printf("fan-out latency (ms): p50 %.3f | p99 %.3f | p999 %.3f | max %.3f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        report.println();
+        report.printf("bids sent:      %d (%.0f/s)%n", bidsSent.get(), bidsSent.get() / elapsed);
+        for (BidResponse.Result result : BidResponse.Result.values()) {
+            AtomicLong count = bidResults.get(result);
+            report.printf("  %-18s%d%n", result + ":", count == null ? 0 : count.get());
+        }
+        report.println("  unanswered:       " + (bidsSent.get() - responses));
+        report.println();
+        report.printf("bytes encoded %,d, bytes sent %,d (fan-out ratio %.1f)%n",
+                server.getBytesEncoded(), server.getBytesSent(), server.getFanOutRatio());
+        report.printf("send queues:    max depth %d, queued now %d, coalesced %d, evicted %d%n",
+                server.getMaxQueueDepth(), server.getQueuedFrames(), server.getCoalesces(), server.getEvictions());
+        report.printf("server CPU:     %.2f s (%.1f%% of one core)%s%n", serverCpu / 1e9, 100.0 * serverCpu / elapsedNanos,
+                mode == AuctionServer.Mode.VIRTUAL ? ", without the virtual connection threads" : "");
+        report.printf("process CPU:    %.2f s (server and simulated clients)%n", processCpu / 1e9);
+        report.printf("heap:           max %,d KB, now %,d KB (server and simulated clients)%n", maxHeap / 1024, heapNow / 1024);
+        report.printf("threads:        %d platform threads (peak %d), resident memory max %,d KB%n",
+                threads.getThreadCount(), threads.getPeakThreadCount(), maxRss);
+    }
+
+
+
+
+    // **************************************************** //
+    //                      HELPERS                         //
+    // **************************************************** //
+
+    // a broadcast is identified by the fields which change with every broadcast
+    private static long key(AuctionData data) {
+        long flags = (data.isBiddingPaused() ? 1 : 0) | (data.isAuctionEnded() ? 2 : 0) | (data.isCurrentPlayerSold() ? 4 : 0);
+        return ((long) data.getCurrentIndex() << 44) | ((long) (data.getTimeLeft() & 0xff) << 36)
+                | ((data.getBidVersion() & 0xffffffffL) << 4) | flags;
+    }
+
+    private List<Player> roster() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            Player player = new Player(Datasets.playerName(i), "India", 25, 1.8, "", "Batsman", i, 0);
+            player.setBasePrice(2000000);
+            players.add(player);
+        }
+        return players;
+    }
+
+    private void waitForServer() throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            try (Socket probe = new Socket("127.0.0.1", 12345)) {
+                return;
+            } catch (Exception e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Auction server did not start");
+    }
+
+    // CPU time of the server's threads (the server, connection and engine threads are named "auction-...")
+    private static long serverCpuNanos(ThreadMXBean threads) {
+        long total = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && info.getThreadName().startsWith("auction-")) {
+                long cpu = threads.getThreadCpuTime(info.getThreadId());
+                if (cpu > 0) total += cpu;
+            }
+        }
+        return total;
+    }
+
+    // resident set size of the process (thread stacks included), 0 where /proc is not available
+    private static long residentKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        } catch (Exception e) {
+            // not Linux
+        }
+        return 0;
+    }
+
+    private static long processCpuNanos() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+
+
+
+    // One simulated club (bidderName != null) or viewer
+    private class SimulatedClient implements AuctionClient.Listener {
+        private final String bidderName;
+        private AuctionClient connection;
+        private volatile AuctionData latest;
+
+        // written by the client's reader thread only, read after the run:
+        private long[] latencies = new long[1024];
+        private int samples = 0;
+
+        SimulatedClient(String bidderName) {
+            this.bidderName = bidderName;
+        }
+
+        @Override
+        public void onAuctionData(AuctionData auctionData) {
+            long now = System.nanoTime();
+            latest = auctionData;
+
+            Long sentAt = broadcastTimes.get(key(auctionData));
+            if (sentAt != null) {
+                if (samples == latencies.length) latencies = Arrays.copyOf(latencies, samples * 2);
+                latencies[samples++] = now - sentAt;
+            }
+        }
+
+        @Override
+        public void onBidResponse(BidResponse response) {
+            bidResults.computeIfAbsent(response.getResult(), r -> new AtomicLong()).incrementAndGet();
+        }
+
+        // bids 100,000 over the latest bid it has seen
+        void bid() {
+            AuctionData state = latest;
+            if (state == null || !state.isAuctionStarted() || state.isBiddingPaused() || state.getSecondsLeft() < 1) return;
+
+            AuctionData bid = new AuctionData(null, state.getCurrentIndex(), state.getTimeLeft(),
+                    state.getCurrentBid() + 100000, bidderName, false, true, false, null, false, null, 0);
+            bid.setBidVersion(state.getBidVersion());
+            connection.sendAuctionData(bid);
+            bidsSent.incrementAndGet();
+        }
+    }
+}
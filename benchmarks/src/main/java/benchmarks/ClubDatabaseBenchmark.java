@@ -0,0 +1,56 @@
+package benchmarks;
+
+import application.Main;
+import model.Club;
+import model.ClubDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// ClubDatabase lookups and transfers, with clubs holding the players of generated datasets
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx4g"})
+public class ClubDatabaseBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private ClubDatabase database;
+    private String[] names;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Datasets.load(size);
+        database = Main.clubDatabase;
+
+        names = new String[1024];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = Datasets.playerName((int) ((long) i * size / names.length));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Datasets.delete(dir);
+    }
+
+    @Benchmark
+    public Club getClub() {
+        return database.getClub(Datasets.CLUBS[next++ % Datasets.CLUBS.length]);
+    }
+
+    // moves a player to another club (removing it from its previous club's list)
+    @Benchmark
+    public boolean updatePlayerClub() {
+        int i = next++;
+        return database.updatePlayerClub(names[i & (names.length - 1)], Datasets.CLUBS[i % Datasets.CLUBS.length], 5000000);
+    }
+}
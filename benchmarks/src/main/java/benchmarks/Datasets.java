@@ -0,0 +1,105 @@
+package benchmarks;
+
+import application.Main;
+import model.ClubDatabase;
+import model.Constants;
+import model.PersistenceScheduler;
+import model.PlayerDatabase;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// Generated players.txt / clubs.txt datasets for the benchmarks.
+//
+// Every dataset is written to its own temporary directory and the databases are pointed at it with the
+// cricmart.dataDir property, so the benchmarks never touch the real data files. The data is random
+// but fixed (same seed), so runs on different commits are compared on the same input.
+public class Datasets {
+    static final String[] CLUBS = {
+            "Chennai Super Kings", "Mumbai Indians", "Royal Challengers Bangalore", "Kolkata Knight Riders",
+            "Delhi Capitals", "Punjab Kings", "Rajasthan Royals", "Sunrisers Hyderabad",
+            "Lucknow Super Giants", "Gujarat Titans"
+    };
+    static final String[] COUNTRIES = {
+            "India", "Australia", "England", "South Africa", "New Zealand", "Pakistan",
+            "Sri Lanka", "West Indies", "Bangladesh", "Afghanistan", "Zimbabwe", "Ireland"
+    };
+    static final String[] POSITIONS = {"Batsman", "Bowler", "Allrounder", "Wicketkeeper"};
+
+    static String playerName(int i) {
+        return "Player " + i;
+    }
+
+    // writes a dataset of the given size into a new temporary directory
+    static Path generate(int size) throws IOException {
+        Path dir = Files.createTempDirectory("cricmart-bench-" + size + "-");
+        Random random = new Random(42);
+
+        try (BufferedWriter bw = Files.newBufferedWriter(dir.resolve("clubs.txt"))) {
+            for (int i = 0; i < CLUBS.length; i++) {
+                bw.write("admin" + i + "," + CLUBS[i] + ",C" + i + ",Manager " + i + "," + 2000000000 + "," + (i % 5));
+                bw.newLine();
+            }
+        }
+
+        try (BufferedWriter bw = Files.newBufferedWriter(dir.resolve("players.txt"))) {
+            for (int i = 0; i < size; i++) {
+                boolean sold = random.nextInt(3) != 0;                  // a third of the players are unsold
+                int basePrice = 2000000 + random.nextInt(18) * 1000000;
+                int salary = sold ? basePrice + random.nextInt(10) * 500000 : 0;
+
+                bw.write(playerName(i) + ","
+                        + COUNTRIES[random.nextInt(COUNTRIES.length)] + ","
+                        + (18 + random.nextInt(20)) + ","
+                        + (1.6 + random.nextInt(40) / 100.0) + ","
+                        + (sold ? CLUBS[random.nextInt(CLUBS.length)] : "") + ","
+                        + POSITIONS[random.nextInt(POSITIONS.length)] + ","
+                        + random.nextInt(100) + ","
+                        + salary + ","
+                        + random.nextInt(300) + ","
+                        + random.nextInt(8000) + ","
+                        + random.nextInt(6000) + ","
+                        + random.nextInt(40) + ","
+                        + random.nextInt(10) + ","
+                        + random.nextInt(3) + ","
+                        + random.nextInt(500) + ".0,"
+                        + random.nextInt(4000) + ","
+                        + random.nextInt(200) + ","
+                        + basePrice + ","
+                        + (sold ? salary : 0));
+                bw.newLine();
+            }
+        }
+        return dir;
+    }
+
+    // generates a dataset and loads it into Main.clubDatabase / Main.playerDatabase
+    static Path load(int size) throws IOException {
+        silenceOutput();
+        PersistenceScheduler.setEnabled(false);         // no background writes while measuring
+
+        Path dir = generate(size);
+        System.setProperty(Constants.DATA_DIR_PROPERTY, dir.toString());
+        Main.clubDatabase = ClubDatabase.load();
+        Main.playerDatabase = PlayerDatabase.load();
+        return dir;
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (dir == null) return;
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    // the databases print a line for almost every player; that would drown the measurements
+    static void silenceOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import model.Player;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-player string conversions (used for every line of players.txt and every new player).
+// Run with -prof gc to see the bytes allocated per call (gc.alloc.rate.norm).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class PlayerBenchmark {
+
+    private Player player;
+    private String messyName;
+    private String formattedName;
+    private StringBuilder line;
+
+    @Setup
+    public void setUp() {
+        player = new Player("Virat Kohli", "India", 35, 1.75, "Royal Challengers Bangalore", "Batsman", 18, 15000000);
+        player.setMatchesPlayed(237);
+        player.setRunsScored(7263);
+        player.setBallsFaced(5530);
+        player.setFifties(50);
+        player.setCenturies(7);
+        player.setOversBowled(26.2);
+        player.setRunsGiven(368);
+        player.setWicketsTaken(4);
+        player.setBasePrice(2000000);
+        player.setFinalBidPrice(15000000);
+
+        messyName = "  virat    kohli     ";
+        formattedName = "Royal Challengers Bangalore";
+        line = new StringBuilder(256);
+    }
+
+    @Benchmark
+    public String toFileString() {
+        return player.toFileString();
+    }
+
+    // what a save does per player: the line goes into a reused buffer
+    @Benchmark
+    public void appendFileString(Blackhole blackhole) {
+        line.setLength(0);
+        blackhole.consume(player.appendFileString(line));
+    }
+
+    @Benchmark
+    public String formatString() {
+        return Player.formatString(messyName);
+    }
+
+    // what loading does per name: the names in players.txt are already formatted
+    @Benchmark
+    public String formatStringFormatted() {
+        return Player.formatString(formattedName);
+    }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import application.Main;
+import model.ClubDatabase;
+import model.Player;
+import model.PlayerDatabase;
+import model.PlayerStat;
+import model.PlayerSortKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// PlayerDatabase operations on generated datasets of 1k to 1M players
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx4g"})
+public class PlayerDatabaseBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private PlayerDatabase database;
+    private String[] names;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Datasets.load(size);
+        database = Main.playerDatabase;
+
+        names = new String[1024];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = Datasets.playerName((int) ((long) i * size / names.length));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Datasets.delete(dir);
+    }
+
+    // loadPlayers (through the constructor) as on startup; clubs.txt is reloaded too, so the clubs do not grow between calls
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PlayerDatabase loadPlayers() throws IOException {
+        Main.clubDatabase = ClubDatabase.load();
+        Main.playerDatabase = null;             // as on startup: the clubs must not call back into a previous database
+        return PlayerDatabase.load();
+    }
+
+    @Benchmark
+    public Player getPlayer() {
+        return database.getPlayer(names[next++ & (names.length - 1)]);
+    }
+
+    @Benchmark
+    public List<Player> getPlayersOfCountry() {
+        String country = Datasets.COUNTRIES[next++ % Datasets.COUNTRIES.length];
+        return database.getPlayersOfCountry(country);
+    }
+
+    @Benchmark
+    public List<Player> getPlayersOfSalaryRange() {
+        return database.getPlayersOfSalaryRange(5000000, 8000000);
+    }
+
+    // a listing as PlayersController shows it (copied into the list view's items)
+    @Benchmark
+    public List<Player> getSortedPlayers() {
+        PlayerSortKey key = PlayerSortKey.values()[next++ % PlayerSortKey.values().length];
+        return new ArrayList<>(database.getSortedPlayers(key, (next & 1) == 1));
+    }
+
+    // top 10 strike rate among bowlers from India: over the stats columns, and over the Player objects
+    @Benchmark
+    public List<Player> topStrikeRate() {
+        return database.getTopPlayers(PlayerStat.STRIKE_RATE, 10, "Bowler", "India");
+    }
+
+    @Benchmark
+    public List<Player> topStrikeRateOfObjects() {
+        return database.getPlayers().stream()
+                .filter(p -> p.getPosition().equalsIgnoreCase("Bowler") && p.getCountry().equalsIgnoreCase("India"))
+                .filter(p -> p.getBallsFaced() > 0)
+                .sorted(Comparator.comparingDouble(Player::getBattingStrikeRate).reversed())
+                .limit(10)
+                .toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void uploadInfoToFile() throws IOException {
+        database.uploadInfoToFile();
+    }
+}
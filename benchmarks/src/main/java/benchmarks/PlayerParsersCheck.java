@@ -0,0 +1,105 @@
+package benchmarks;
+
+import application.Main;
+import model.ClubDatabase;
+import model.Constants;
+import model.PersistenceScheduler;
+import model.Player;
+import model.PlayerDatabase;
+import model.PlayerSnapshot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Checks that the three readers of players.txt build the same players from the same edge-case lines:
+//      PlayerDatabase.parsePlayer      (the lines of a storage server, read here with Files.readAllLines)
+//      PlayerFileLoader                (players.txt parsed in place on startup)
+//      PlayerSnapshot                  (players.snapshot written from the loaded players, then read back)
+// The players are compared by their players.txt line and number; a line one reader refuses must be refused
+// by all of them. Exits with status 1 on the first difference.
+//
+// usage: java --enable-preview -cp benchmarks/target/benchmarks.jar benchmarks.PlayerParsersCheck
+public class PlayerParsersCheck {
+    private static final String CLUB = "Mumbai Indians";
+
+    // one line per edge case (players.txt layout, see model.PlayerField):
+    private static final String[] LINES = {
+            "Plain Player,India,30,1.75," + CLUB + ",Batsman,18,15000000,200,6000,4500,40,12,0,10.5,80,3,2000000,15000000",
+            "No Number,England,25,1.8,,Bowler,,0,10,20,30,0,0,1,120.0,900,40,3000000,0",
+            "Negative Number,Australia,28,1.9,,Allrounder,-1,0,1,2,3,0,0,0,0.0,0,0,2000000,0",
+            "Signed Values,India,+31,+1.70,,Wicketkeeper,+7,-5,0,0,0,0,0,0,-0.5,0,0,2000000,-1",
+            "Leading Zeros,India,007,01.50,,Batsman,007,000,0,0,0,0,0,0,00.25,0,0,0002000000,0",
+            "Int Limits,India,2147483647,1.7,,Batsman,-2147483648,2147483647,0,0,0,0,0,0,0,0,0,2000000,0",
+            "Long Decimals,India,30,1.7500000000000000001,,Batsman,1,0,0,0,0,0,0,0,3.14159265358979,0,0,2000000,0",
+            "Odd Doubles,India,30,1e0,,Batsman,1,0,0,0,0,0,0,0,.5,0,0,2000000,0",
+            "Trailing Dot,India,30,2.,,Batsman,1,0,0,0,0,0,0,0,5.,0,0,2000000,0",
+            "Extra Fields,India,30,1.7,,Batsman,1,0,0,0,0,0,0,0,0,0,0,2000000,0,extra,fields",
+            "Rashid Khán,Afghanistan,25,1.78,,Bowler,19,0,80,500,400,0,0,2,300.4,2000,120,5000000,0",
+            "too few fields,India,30,1.7,,Batsman,1,0",
+            "Empty Last Field,India,30,1.7,,Batsman,1,0,0,0,0,0,0,0,0,0,0,2000000,",
+            "",
+            "Crlf Line,India,30,1.7,,Batsman,1,0,0,0,0,0,0,0,0,0,0,2000000,0\r",
+            "Last Line,India,30,1.7," + CLUB + ",Batsman,2,2500000,0,0,0,0,0,0,0,0,0,2000000,2500000"
+    };
+
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("cricmart-parsers-");
+        System.setProperty(Constants.DATA_DIR_PROPERTY, dir.toString());
+        PersistenceScheduler.setEnabled(false);
+        try {
+            Files.writeString(dir.resolve("clubs.txt"), "admin0," + CLUB + ",MI,Manager 0,2000000000,0\n");
+            try (BufferedWriter bw = Files.newBufferedWriter(dir.resolve("players.txt"))) {
+                for (String line : LINES) {
+                    bw.write(line);
+                    bw.write('\n');
+                }
+            }
+
+            List<String> fromParsePlayer = fileLines(load(Files.readAllLines(dir.resolve("players.txt"))));
+            List<String> fromLoader = fileLines(load(null));
+            PlayerSnapshot.write(Main.playerDatabase.getPlayers());
+            List<String> fromSnapshot = fileLines(load(null));
+
+            boolean same = compare("PlayerFileLoader", fromLoader, fromParsePlayer)
+                    && compare("PlayerSnapshot", fromSnapshot, fromParsePlayer);
+            if (!same) System.exit(1);
+            System.out.println("parsePlayer, PlayerFileLoader and PlayerSnapshot agree on " + LINES.length
+                    + " lines (" + fromParsePlayer.size() + " players)");
+        } finally {
+            Datasets.delete(dir);
+        }
+    }
+
+    // a new database from the given lines, or from the data files (players.snapshot if it is current)
+    private static PlayerDatabase load(List<String> lines) throws IOException {
+        Main.playerDatabase = null;             // as on startup: the clubs must not call back into a previous database
+        Main.clubDatabase = ClubDatabase.load();
+        Main.playerDatabase = lines == null ? PlayerDatabase.load() : PlayerDatabase.fromLines(lines);
+        return Main.playerDatabase;
+    }
+
+    private static List<String> fileLines(PlayerDatabase database) {
+        List<String> lines = new ArrayList<>();
+        for (Player player : database.getPlayers()) {
+            lines.add(player.toFileString() + " #" + player.getNumber());
+        }
+        return lines;
+    }
+
+    private static boolean compare(String reader, List<String> actual, List<String> expected) {
+        if (actual.equals(expected)) return true;
+
+        System.out.println(reader + " differs from PlayerDatabase.parsePlayer:");
+        for (int i = 0; i < Math.max(actual.size(), expected.size()); i++) {
+            String a = i < actual.size() ? actual.get(i) : "(none)";
+            String e = i < expected.size() ? expected.get(i) : "(none)";
+            if (!a.equals(e)) System.out.println("    " + reader + ": " + a + "\n    parsePlayer: " + e);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import application.Main;
+import model.ClubDatabase;
+import model.PlayerDatabase;
+import model.PlayerSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// PlayerDatabase startup from players.snapshot (compare with PlayerDatabaseBenchmark.loadPlayers, which parses players.txt)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx4g"})
+public class PlayerSnapshotBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Datasets.load(size);
+        PlayerSnapshot.write(Main.playerDatabase.getPlayers());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Datasets.delete(dir);
+    }
+
+    @Benchmark
+    public PlayerDatabase loadPlayersFromSnapshot() throws IOException {
+        Main.clubDatabase = ClubDatabase.load();
+        Main.playerDatabase = null;             // as on startup: the clubs must not call back into a previous database
+        return PlayerDatabase.load();
+    }
+}
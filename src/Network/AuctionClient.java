@@ -10,17 +10,30 @@ import java.io.*;
 import java.net.*;
 
 public class AuctionClient {
+
+    // Receives the server messages of a client without a UI (called on the reader thread)
+    public interface Listener {
+        void onAuctionData(AuctionData auctionData);
+
+        default void onBidResponse(BidResponse response) {
+        }
+    }
+
     private static final String SERVER_IP = "127.0.0.1";
     private static final int SERVER_PORT = 12345;
 
     private Socket socket;
-    private ObjectOutputStream out;
-    private ObjectInputStream in;
-    private boolean isConnected = false;
+    private DataOutputStream out;
+    private DataInputStream in;
+    private final DeltaEncoder encoder = new DeltaEncoder();
+    private final DeltaDecoder decoder = new DeltaDecoder();
+    private volatile boolean isConnected = false;
 
     private clubAuctionController clubController;
     private startAuctionController adminController;
     private viewerAuctionController viewerController;
+    private Listener listener;
+    private boolean virtualReader = false;              // read on a virtual thread (many clients in one process)
     private Thread readerThread;
 
     // Constructor overloads for different controller types
@@ -39,12 +52,24 @@ public class AuctionClient {
         connect();
     }
 
+    // Headless client (no JavaFX), used by the load test
+    public AuctionClient(Listener listener) {
+        this(listener, false);
+    }
+
+    public AuctionClient(Listener listener, boolean virtualReader) {
+        this.listener = listener;
+        this.virtualReader = virtualReader;
+        connect();
+    }
+
     // Connects to the auction server and initializes streams
     private void connect() {
         try {
             socket = new Socket(SERVER_IP, SERVER_PORT);
-            out = new ObjectOutputStream(socket.getOutputStream());
-            in = new ObjectInputStream(socket.getInputStream());
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
             isConnected = true;
 
             System.out.println("Connected to auction server at " + SERVER_IP + ":" + SERVER_PORT);
@@ -58,11 +83,12 @@ public class AuctionClient {
 
     // Starts a background thread to read incoming server messages
     private void startReaderThread() {
-        readerThread = new Thread(() -> {
+        Thread.Builder builder = virtualReader ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        readerThread = builder.name("client-reader").start(() -> {
             try {
                 while (isConnected && !Thread.currentThread().isInterrupted()) {
-                    Object message = in.readObject();
-                    handleServerMessage(message);
+                    byte[] payload = MessageCodec.readPayload(in);
+                    handleServerMessage(decoder.decode(payload, 0, payload.length));
                 }
             } catch (EOFException e) {
                 System.out.println("Server disconnected");
@@ -74,13 +100,21 @@ public class AuctionClient {
                 isConnected = false;
             }
         });
-        readerThread.setDaemon(true);
-        readerThread.start();
     }
 
-    // Handles incoming AuctionData from server and updates UI
+    // Handles incoming AuctionData (and bid responses) from server and updates UI
     private void handleServerMessage(Object message) {
-        if (message instanceof AuctionData auctionData) {
+        if (listener != null) {
+            if (message instanceof BidResponse response) listener.onBidResponse(response);
+            else if (message instanceof AuctionData auctionData) listener.onAuctionData(auctionData);
+            return;
+        }
+
+        if (message instanceof BidResponse response) {
+            if (clubController != null) {
+                Platform.runLater(() -> clubController.handleBidResponse(response));
+            }
+        } else if (message instanceof AuctionData auctionData) {
             Platform.runLater(() -> {
                 if (clubController != null) {
                     try {
@@ -105,8 +139,9 @@ public class AuctionClient {
         }
 
         try {
-            out.writeObject(auctionData);
-            out.flush();
+            synchronized (out) {
+                MessageCodec.writeFrame(out, encoder.encode(auctionData));
+            }
             System.out.println("Sent auction data to server - Bid: $" +
                     String.format("%,d", auctionData.getCurrentBid()) +
                     " by " + auctionData.getCurrentBidder());
@@ -116,7 +151,25 @@ public class AuctionClient {
         }
     }
 
-    // Returns connection status
+    // Sends an admin command to the auction engine on the server
+    public void sendCommand(AuctionCommand command) {
+        if (!isConnected || out == null) {
+            System.err.println("Not connected to server. Cannot send command.");
+            return;
+        }
+
+        try {
+            synchronized (out) {
+                MessageCodec.writeFrame(out, MessageCodec.encode(command));
+            }
+            System.out.println("Sent command to server: " + command);
+        } catch (IOException e) {
+            System.err.println("Error sending command: " + e.getMessage());
+            isConnected = false;
+        }
+    }
+
+        // Returns connection status
     public boolean isConnected() {
         return isConnected && socket != null && !socket.isClosed();
     }
@@ -0,0 +1,50 @@
+package Network;
+
+import model.Player;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Control message sent by the admin to the AuctionEngine on the server
+public class AuctionCommand implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        START,          // start the auction with the given players
+        PAUSE,          // stop the clock
+        RESUME,         // restart the clock
+        NEXT,           // skip to the next player
+        STOP            // end the auction
+    }
+
+    private final Type type;
+    private final ArrayList<Player> players;
+
+    private AuctionCommand(Type type, ArrayList<Player> players) {
+        this.type = type;
+        this.players = players;
+    }
+
+    public static AuctionCommand start(List<Player> players) {
+        return new AuctionCommand(Type.START, new ArrayList<>(players));
+    }
+
+    public static AuctionCommand of(Type type) {
+        return new AuctionCommand(type, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    @Override
+    public String toString() {
+        return "AuctionCommand{" + type + (players != null ? ", players=" + players.size() : "") + '}';
+    }
+}
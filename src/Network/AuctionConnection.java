@@ -0,0 +1,23 @@
+package Network;
+
+import java.util.function.Supplier;
+
+// One connected client, as seen by AuctionServer (implemented by the threaded and the NIO connection)
+interface AuctionConnection {
+
+    // Sends an encoded frame (shared by all clients, must not be modified), returns false if the client is gone
+    // or too far behind
+    boolean sendFrame(byte[] frame);
+
+    // Sends a frame of the auction state stream; a client which is behind gets snapshot.get() instead of the
+    // frames it has not received yet, except for the frames with a keep snapshot (see OutboundQueue)
+    OutboundQueue.Offer sendState(byte[] frame, byte[] keep, Supplier<byte[]> snapshot);
+
+    // Frames waiting to be written to the client
+    int queueDepth();
+
+    // Closes the connection
+    void disconnect();
+
+    String getClientId();
+}
@@ -0,0 +1,365 @@
+package Network;
+
+import controller.AuctionData;
+import model.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+// Server-side auction state machine: owns the clock, validates bids, settles sales and broadcasts.
+//
+// Clock, commands and settlement run on one scheduler thread, so that state needs no locks and the
+// clock does not depend on any client (the admin UI only sends commands). The engine can also run
+// without any UI at all (see AuctionServer.main).
+//
+// Bids are decided on the connection thread that received them, without a lock: the bid state of the
+// current player is one immutable BidState, replaced with compare-and-set. A bid names the version it
+// was made on; it wins only if it moves the state from exactly that version, so of several bids on
+// the same version exactly one is accepted and the others are told to bid again.
+//
+// With a client countdown the clock does not tick: the lot is closed by one timer at its deadline, and the
+// broadcasts only carry that deadline (see AuctionData.getDeadlineNanos), so nothing is sent between the bids.
+public class AuctionEngine {
+    public static final int AUCTION_TIME = 12;                 // seconds per player
+    public static final int NEXT_PLAYER_DELAY = 2;             // seconds between a sale and the next player
+
+    // Called on the engine thread when a sale is settled (to update a database, if the server has one).
+    // The engine never changes the players itself: the listener is the only code which applies a sale.
+    public interface SaleListener {
+        void playerSold(String playerName, String clubName, int price);
+    }
+
+    // Bid state of the current player. The version changes with every accepted bid and every new player.
+    private static final class BidState {
+        static final BidState CLOSED = new BidState(0, 0, "", false, 0);
+
+        final int version;
+        final int amount;
+        final String bidder;
+        final boolean open;             // bids are accepted (a player is up, the clock runs and is not paused)
+        final int basePrice;
+
+        BidState(int version, int amount, String bidder, boolean open, int basePrice) {
+            this.version = version;
+            this.amount = amount;
+            this.bidder = bidder;
+            this.open = open;
+            this.basePrice = basePrice;
+        }
+
+        BidState withOpen(boolean open) {
+            return new BidState(version, amount, bidder, open, basePrice);
+        }
+
+        BidResponse.Result check(String newBidder, int newAmount, int expectedVersion) {
+            if (!open) return BidResponse.Result.CLOSED;
+            if (expectedVersion != version) return BidResponse.Result.STALE_VERSION;
+            if (newBidder.equalsIgnoreCase(bidder)) return BidResponse.Result.ALREADY_LEADING;
+            if (newAmount <= amount || newAmount < basePrice) return BidResponse.Result.TOO_LOW;
+            return BidResponse.Result.ACCEPTED;
+        }
+    }
+
+    private final AuctionServer server;
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> clock;
+    private ScheduledFuture<?> pendingNext;
+    private SaleListener saleListener;
+    private volatile Predicate<String> bidderCheck;         // null: any bidder is accepted
+    private boolean clientCountdown = false;
+
+    private final AtomicReference<BidState> bidState = new AtomicReference<>(BidState.CLOSED);
+    private final AtomicBoolean bidBroadcastPending = new AtomicBoolean(false);
+
+    // auction state (engine thread only):
+    private List<Player> players = new ArrayList<>();
+    private int playerCount = 0;
+    private int timeLeft = 0;
+    private boolean isBiddingPaused = false;
+    private boolean isStarted = false;
+    private boolean isEnded = false;
+
+    // clock of the lot with a client countdown (engine thread only):
+    private long deadlineNanos = 0;             // System.nanoTime() when the lot closes, 0 while the clock is stopped
+    private long pausedMillis = -1;             // time left of a paused lot, -1 if no lot clock was paused
+
+    public AuctionEngine(AuctionServer server) {
+        this.server = server;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "auction-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setSaleListener(SaleListener saleListener) {
+        this.saleListener = saleListener;
+    }
+
+    // only bids of the clubs this test accepts are decided (the clubs of the server's database, if it has one)
+    public void setBidderCheck(Predicate<String> bidderCheck) {
+        this.bidderCheck = bidderCheck;
+    }
+
+    // the clients count the seconds down, the engine broadcasts only the deadline (set before the start)
+    public void setClientCountdown(boolean clientCountdown) {
+        this.clientCountdown = clientCountdown;
+    }
+
+
+
+
+    // **************************************************** //
+    //                 ENTRY POINTS (any thread)            //
+    // **************************************************** //
+
+    public void handleCommand(AuctionCommand command) {
+        scheduler.execute(() -> {
+            System.out.println("Engine command: " + command);
+            switch (command.getType()) {
+                case START -> start(command.getPlayers());
+                case PAUSE -> pause();
+                case RESUME -> resume();
+                case NEXT -> nextPlayer();
+                case STOP -> stop();
+            }
+        });
+    }
+
+    // Decides a bid on the calling thread; expectedVersion is the bid version the club saw
+    public BidResponse placeBid(String bidder, int amount, int expectedVersion) {
+        if (bidder == null || bidder.isEmpty()) {
+            BidState state = bidState.get();
+            return new BidResponse(BidResponse.Result.CLOSED, state.version, state.amount, state.bidder);
+        }
+        Predicate<String> check = bidderCheck;
+        if (check != null && !check.test(bidder)) {
+            BidState state = bidState.get();
+            return new BidResponse(BidResponse.Result.UNKNOWN_BIDDER, state.version, state.amount, state.bidder);
+        }
+
+        while (true) {
+            BidState state = bidState.get();
+            BidResponse.Result result = state.check(bidder, amount, expectedVersion);
+            if (result != BidResponse.Result.ACCEPTED) {
+                return new BidResponse(result, state.version, state.amount, state.bidder);
+            }
+
+            BidState next = new BidState(state.version + 1, amount, bidder, true, state.basePrice);
+            if (bidState.compareAndSet(state, next)) {
+                scheduleBidBroadcast();
+                return new BidResponse(BidResponse.Result.ACCEPTED, next.version, amount, bidder);
+            }
+            // the state changed in between (another bid, a pause): check again against the new state
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // a burst of accepted bids is announced by one broadcast with the latest state
+    private void scheduleBidBroadcast() {
+        if (bidBroadcastPending.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                bidBroadcastPending.set(false);
+                broadcast(false, null, 0);
+            });
+        }
+    }
+
+
+
+
+    // **************************************************** //
+    //                STATE MACHINE (engine thread)         //
+    // **************************************************** //
+
+    private void start(List<Player> roster) {
+        if (isStarted) {
+            System.out.println("Engine: auction already started");
+            return;
+        }
+        if (roster == null || roster.isEmpty()) {
+            System.out.println("Engine: no players to auction");
+            return;
+        }
+
+        players = new ArrayList<>(roster);
+        playerCount = 0;
+        isStarted = true;
+        isEnded = false;
+        isBiddingPaused = false;
+        openLot();
+    }
+
+    // puts the current player up for bidding and restarts the clock
+    private void openLot() {
+        Player player = players.get(playerCount);
+        timeLeft = AUCTION_TIME;
+
+        int version = bidState.get().version + 1;           // bids made on the previous player are stale
+        bidState.set(new BidState(version, player.getBasePrice(), "", true, player.getBasePrice()));
+
+        if (clientCountdown) {
+            startCountdown(AUCTION_TIME * 1000L);
+        } else {
+            startClock();
+        }
+        broadcast(false, null, 0);
+    }
+
+    private void startClock() {
+        stopClock();
+        clock = scheduler.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    // one timer for the whole lot instead of a tick per second
+    private void startCountdown(long millis) {
+        stopClock();
+        deadlineNanos = System.nanoTime() + millis * 1_000_000L;
+        clock = scheduler.schedule(this::closeLot, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopClock() {
+        if (clock != null) clock.cancel(false);
+        if (pendingNext != null) pendingNext.cancel(false);
+        clock = null;
+        pendingNext = null;
+        deadlineNanos = 0;
+        pausedMillis = -1;
+    }
+
+    private void setBiddingOpen(boolean open) {
+        bidState.updateAndGet(state -> state.withOpen(open));
+    }
+
+    private void tick() {
+        if (!isStarted || isBiddingPaused) return;
+
+        timeLeft--;
+        if (timeLeft > 0) {
+            broadcast(false, null, 0);
+            return;
+        }
+
+        closeLot();
+    }
+
+    private void closeLot() {
+        if (clock != null) clock.cancel(false);
+        clock = null;
+        deadlineNanos = 0;
+        settle();
+        pendingNext = scheduler.schedule(this::nextPlayer, NEXT_PLAYER_DELAY, TimeUnit.SECONDS);
+    }
+
+    // closes the current lot: sold to the high bidder, or unsold
+    private void settle() {
+        Player player = players.get(playerCount);
+        BidState closed = bidState.updateAndGet(state -> state.withOpen(false));      // no bid can win after this
+        timeLeft = 0;
+
+        if (!closed.bidder.isEmpty() && closed.amount >= player.getBasePrice()) {
+            String soldToClub = closed.bidder;
+            int finalSalePrice = closed.amount;
+
+            if (saleListener != null) {
+                try {
+                    saleListener.playerSold(player.getName(), soldToClub, finalSalePrice);
+                } catch (RuntimeException e) {
+                    System.err.println("Error settling sale of " + player.getName() + ": " + e.getMessage());
+                }
+            }
+
+            System.out.println("ENGINE: Player " + player.getName() + " sold to " + soldToClub + " for $" + String.format("%,d", finalSalePrice));
+            broadcast(true, soldToClub, finalSalePrice);
+        } else {
+            System.out.println("ENGINE: Player " + player.getName() + " unsold (no valid bids or bid below base price).");
+            broadcast(false, null, player.getBasePrice());
+        }
+    }
+
+    private void nextPlayer() {
+        if (!isStarted) return;
+        stopClock();
+
+        playerCount++;
+        isBiddingPaused = false;
+        if (playerCount >= players.size()) {
+            stop();
+        } else {
+            openLot();
+        }
+    }
+
+    private void pause() {
+        if (!isStarted || isBiddingPaused) return;
+        isBiddingPaused = true;
+        setBiddingOpen(false);
+
+        if (clientCountdown && clock != null) {            // stop the lot's timer, the clients show timeLeft
+            long millis = Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+            clock.cancel(false);
+            clock = null;
+            deadlineNanos = 0;
+            pausedMillis = millis;
+            timeLeft = (int) ((millis + 999) / 1000);
+        }
+        broadcast(false, null, 0);
+    }
+
+    private void resume() {
+        if (!isStarted || !isBiddingPaused) return;
+        isBiddingPaused = false;
+        if (pausedMillis >= 0) {
+            setBiddingOpen(true);
+            startCountdown(pausedMillis);
+        } else if (clock != null) {
+            setBiddingOpen(true);                           // not between a sale and the next player
+        }
+        broadcast(false, null, 0);
+    }
+
+    private void stop() {
+        if (!isStarted) return;
+        stopClock();
+        setBiddingOpen(false);
+
+        isStarted = false;
+        isEnded = true;
+        broadcast(false, null, 0);
+        System.out.println("ENGINE: auction ended");
+    }
+
+    private void broadcast(boolean isSold, String winningClubName, int finalSalePrice) {
+        int index = Math.min(playerCount, players.size() - 1);
+        Player player = index >= 0 ? players.get(index) : null;
+        BidState state = bidState.get();
+
+        AuctionData data = new AuctionData(
+                players,
+                index,
+                timeLeft,
+                state.amount,
+                state.bidder,
+                isBiddingPaused,
+                isStarted,
+                isEnded,
+                player,
+                isSold,
+                winningClubName,
+                finalSalePrice
+        );
+        data.setBidVersion(state.version);
+        data.setDeadlineNanos(deadlineNanos);
+        server.broadcastAuctionData(data);
+    }
+}
@@ -2,47 +2,107 @@ package Network;
 
 import application.Main;
 import controller.AuctionData;
-import model.Player;
+import model.ClubDatabase;
+import model.DatabaseJournal;
+import model.PersistenceScheduler;
+import model.PlayerDatabase;
+import model.PlayerSnapshot;
+import model.SaleSettlement;
 
 import java.io.*;
 import java.net.*;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class AuctionServer {
-    private static final int PORT = 12345;
+    static final int PORT = 12345;
 
+    // How client connections are served
+    public enum Mode {
+        THREADED,       // one blocking thread per client
+        VIRTUAL,        // one blocking virtual thread per client (same code as THREADED, no platform thread per client)
+        NIO             // a single selector thread with non-blocking sockets
+    }
+
+    private final Mode mode;
+    private AuctionEngine engine;                       // set by create(), the engine calls back into the server
     private ServerSocket serverSocket;
-    private List<ClientConnection> clients;
+    private NioEventLoop eventLoop;
+    private ExecutorService virtualThreads;             // runs the connections in VIRTUAL mode
+    private List<AuctionConnection> clients;
     private AuctionData currentAuctionData;
-    private boolean isRunning;
-
-    public AuctionServer() {
+    private volatile boolean isRunning;
+
+    // Every broadcast is encoded once (as a delta against the previous broadcast) and the same frame is
+    // written to every client. A client that joins gets a snapshot of the current state first, so the
+    // following shared deltas apply to it as well. Frames are never modified after encoding.
+    //
+    // Broadcasting only queues the frame for every client (see OutboundQueue), so a client which does not read
+    // never holds up the others: its stale frames are replaced by a snapshot (a sale or the end by a snapshot of
+    // its own), and if it still falls behind it is evicted.
+    private final DeltaEncoder broadcastEncoder = new DeltaEncoder();
+    private byte[] snapshotFrame;                       // snapshot of currentAuctionData, encoded when first needed
+    private final Supplier<byte[]> snapshotSupplier = this::snapshotFrame;
+
+    // called with every broadcast before it is written to the clients (the load test times the fan-out with it)
+    private volatile Consumer<AuctionData> broadcastObserver;
+
+    // fan-out counters: bytes encoded once per broadcast vs bytes written to all the client sockets
+    private final AtomicLong bytesEncoded = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    // slow-consumer counters: snapshots sent instead of queued frames, clients evicted, deepest queue seen
+    private final AtomicLong coalesces = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile int maxQueueDepth = 0;
+
+    private AuctionServer(Mode mode) {
+        this.mode = mode;
         clients = new CopyOnWriteArrayList<>();
         isRunning = false;
     }
 
+    public static AuctionServer create() {
+        return create(Mode.THREADED);
+    }
+
+    public static AuctionServer create(Mode mode) {
+        AuctionServer server = new AuctionServer(mode);
+        server.engine = new AuctionEngine(server);
+        return server;
+    }
+
     // Starts the auction server and listens for client connections
     public void start() {
+        if (mode == Mode.NIO) {
+            startNio();
+            return;
+        }
+
         try {
             serverSocket = new ServerSocket(PORT);
             isRunning = true;
+            if (mode == Mode.VIRTUAL) virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
 
-            System.out.println("Auction Server started on port " + PORT);
+            System.out.println("Auction Server (" + mode + ") started on port " + PORT);
             System.out.println("Waiting for clients to connect...");
 
             while (isRunning) {
                 try {
                     Socket clientSocket = serverSocket.accept();
 
-                    // Create a new thread to handle the client
+                    // Create a new thread to handle the client (it registers itself once its streams are ready)
                     ClientConnection clientConn = new ClientConnection(clientSocket, this);
-                    clients.add(clientConn);
-                    new Thread(clientConn).start();
-
-                    System.out.println("New client connected from: " +
-                            clientSocket.getInetAddress().getHostAddress() +
-                            " | Total clients: " + clients.size());
+                    if (virtualThreads != null) {
+                        virtualThreads.execute(clientConn);
+                    } else {
+                        new Thread(clientConn, "auction-conn-" + clientConn.getClientId()).start();
+                    }
 
                 } catch (IOException e) {
                     if (isRunning) {
@@ -55,21 +115,117 @@ public class AuctionServer {
         }
     }
 
+    // Runs the selector loop on the calling thread
+    private void startNio() {
+        try {
+            eventLoop = new NioEventLoop(this, PORT);
+            isRunning = true;
+
+            System.out.println("Auction Server (NIO) started on port " + PORT);
+            eventLoop.run();
+        } catch (IOException e) {
+            System.err.println("Server failed to start: " + e.getMessage());
+        }
+    }
+
+    // Registers a client and sends it the current state (no broadcast can run in between)
+    synchronized void addClient(AuctionConnection client) {
+        byte[] snapshot = snapshotFrame();
+        if (snapshot != null) client.sendState(snapshot, null, snapshotSupplier);
+        clients.add(client);
+
+        System.out.println("New client connected from: " + client.getClientId() +
+                " | Total clients: " + clients.size());
+    }
+
+    // Handles a message received from any client: admin commands and bids go to the engine
+    void handleClientMessage(AuctionConnection client, Object message) {
+        if (message instanceof AuctionCommand command) {
+            System.out.println("Received command from " + client.getClientId() + ": " + command);
+            engine.handleCommand(command);
+
+        } else if (message instanceof AuctionData auctionData) {
+            // the bid is decided right here (lock-free) and the bidder gets the answer before the broadcast:
+            BidResponse response = engine.placeBid(auctionData.getCurrentBidder(), auctionData.getCurrentBid(),
+                    auctionData.getBidVersion());
+
+            System.out.println("Bid from " + client.getClientId() + ": Bid=$" +
+                    String.format("%,d", auctionData.getCurrentBid()) +
+                    " by " + auctionData.getCurrentBidder() + " -> " + response.getResult());
+
+            try {
+                if (!client.sendFrame(MessageCodec.encode(response))) evict(client);
+            } catch (IOException e) {
+                System.err.println("Error encoding bid response: " + e.getMessage());
+            }
+        }
+    }
+
+    public AuctionEngine getEngine() {
+        return engine;
+    }
+
     // Broadcasts the latest auction data to all connected clients
     public synchronized void broadcastAuctionData(AuctionData auctionData) {
+        byte[] frame;
+        try {
+            frame = broadcastEncoder.encode(auctionData);
+        } catch (IOException e) {
+            System.err.println("Error encoding auction data: " + e.getMessage());
+            return;
+        }
         currentAuctionData = auctionData;
+        snapshotFrame = null;
+        bytesEncoded.addAndGet(frame.length);
+
+        Consumer<AuctionData> observer = broadcastObserver;
+        if (observer != null) observer.accept(auctionData);
 
         System.out.println("Broadcasting to " + clients.size() + " clients: " +
                 "Bid=$" + String.format("%,d", auctionData.getCurrentBid()) +
                 " by " + auctionData.getCurrentBidder() +
-                " | Timer: " + auctionData.getTimeLeft() + "s");
+                " | Timer: " + auctionData.getTimeLeft() + "s" +
+                " | Frame: " + frame.length + " bytes");
+
+        // a sale or the end must reach every client (the admin saves the sales), even one which is behind:
+        byte[] keep = auctionData.isCurrentPlayerSold() || auctionData.isAuctionEnded() ? snapshotFrame() : null;
+
+        int deepest = maxQueueDepth;
+        for (AuctionConnection client : clients) {
+            switch (client.sendState(frame, keep, snapshotSupplier)) {
+                case COALESCED -> coalesces.incrementAndGet();
+                case EVICT -> {
+                    evict(client);
+                    continue;
+                }
+                default -> { }
+            }
+            deepest = Math.max(deepest, client.queueDepth());
+        }
+        maxQueueDepth = deepest;
+    }
 
-        for (ClientConnection client : clients) {
-            if (!client.sendAuctionData(auctionData)) {
-                clients.remove(client);
-                System.out.println("Removed disconnected client. Active clients: " + clients.size());
+    // Snapshot of the current state, shared by every client which needs one (null before the first broadcast);
+    // while a lot is counted down by the clients the snapshot carries the time left now, so it is encoded each time
+    private synchronized byte[] snapshotFrame() {
+        if (currentAuctionData != null && currentAuctionData.getDeadlineNanos() != 0) snapshotFrame = null;
+        if (snapshotFrame == null && currentAuctionData != null) {
+            try {
+                snapshotFrame = new DeltaEncoder().encode(currentAuctionData);
+                bytesEncoded.addAndGet(snapshotFrame.length);
+            } catch (IOException e) {
+                System.err.println("Error encoding snapshot: " + e.getMessage());
             }
         }
+        return snapshotFrame;
+    }
+
+    // Drops a client which is gone or does not keep up with the broadcasts
+    private void evict(AuctionConnection client) {
+        if (!clients.remove(client)) return;
+        client.disconnect();
+        evictions.incrementAndGet();
+        System.out.println("Removed client " + client.getClientId() + " (disconnected or too slow). Active clients: " + clients.size());
     }
 
     // Returns the current auction data
@@ -77,8 +233,51 @@ public class AuctionServer {
         return currentAuctionData;
     }
 
+    public void setBroadcastObserver(Consumer<AuctionData> observer) {
+        this.broadcastObserver = observer;
+    }
+
+    // Called by the connections for every byte written to a socket
+    void recordBytesSent(long count) {
+        bytesSent.addAndGet(count);
+    }
+
+    public long getBytesEncoded() {
+        return bytesEncoded.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    // Bytes written per byte encoded (roughly the number of clients when the encoding is shared)
+    public double getFanOutRatio() {
+        long encoded = bytesEncoded.get();
+        return encoded == 0 ? 0 : (double) bytesSent.get() / encoded;
+    }
+
+    public long getCoalesces() {
+        return coalesces.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    // Deepest outbound queue of any client seen at a broadcast
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    // Frames waiting in all the outbound queues right now
+    public int getQueuedFrames() {
+        int total = 0;
+        for (AuctionConnection client : clients) total += client.queueDepth();
+        return total;
+    }
+
     // Removes a client from the active client list
-    public synchronized void removeClient(ClientConnection client) {
+    public synchronized void removeClient(AuctionConnection client) {
         clients.remove(client);
         System.out.println("Client disconnected. Active clients: " + clients.size());
     }
@@ -86,12 +285,21 @@ public class AuctionServer {
     // Gracefully shuts down the server
     public void stop() {
         isRunning = false;
+        engine.shutdown();
 
-        for (ClientConnection client : clients) {
+        for (AuctionConnection client : clients) {
             client.disconnect();
         }
         clients.clear();
 
+        if (eventLoop != null) {
+            eventLoop.stop();
+        }
+
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
@@ -103,26 +311,73 @@ public class AuctionServer {
         System.out.println("Server stopped");
     }
 
-    public static void main(String[] args) {
-        AuctionServer server = new AuctionServer();
+    public static void main(String[] args) throws IOException {
+        // usage: AuctionServer [threaded|virtual|nio] [auto] [store] [countdown]
+        //      auto: run the auction of the unsold players without an admin UI, saving the sales here
+        //      store: also run the StorageServer, the only program which writes the data files (the other
+        //             programs are started with -Dcricmart.storage=<host of this server>)
+        //      countdown: send each lot's deadline once and let the clients count down, instead of a tick every second
+        Mode mode = args.length > 0 ? Mode.valueOf(args[0].toUpperCase()) : Mode.THREADED;
+        List<String> flags = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) flags.add(args[i].toLowerCase());
+        boolean auto = flags.contains("auto");
+        boolean store = flags.contains("store");
+        boolean ownsData = auto || store;
+        AuctionServer server = AuctionServer.create(mode);
+        server.engine.setClientCountdown(flags.contains("countdown"));
+        StorageServer storage = store ? new StorageServer() : null;
+
+        if (ownsData) {
+            Main.clubDatabase = ClubDatabase.load();
+            Main.playerDatabase = PlayerDatabase.load();
+            DatabaseJournal.replay();
+
+            // a sale to a club which is not in the database could not be saved, so its bids are refused:
+            if (storage != null) {
+                server.engine.setBidderCheck(storage::isClub);
+                server.engine.setSaleListener(storage::settleSale);
+                Thread storageThread = new Thread(storage::start, "storage-server");
+                storageThread.setDaemon(true);
+                storageThread.start();
+            } else {
+                server.engine.setBidderCheck(clubName -> Main.clubDatabase.isPresentClub(clubName));
+                server.engine.setSaleListener(SaleSettlement::settle);
+            }
+        }
+        if (auto) {
+            server.engine.handleCommand(AuctionCommand.start(Main.playerDatabase.getUnsoldPlayers()));
+        }
 
         // Add shutdown hook to clean up when program exits
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.out.println("\nShutting down server gracefully...");
             server.stop();
+            if (storage != null) storage.stop();
+            if (ownsData) {
+                try {
+                    DatabaseJournal.compact();
+                    synchronized (PersistenceScheduler.getLock()) {
+                        PlayerSnapshot.write(Main.playerDatabase.getPlayers());
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error saving the databases: " + e.getMessage());
+                }
+            }
         }));
 
         server.start();
     }
 
     // Inner class to handle each connected client
-    private static class ClientConnection implements Runnable {
+    private static class ClientConnection implements Runnable, AuctionConnection {
         private final Socket socket;
         private final AuctionServer server;
-        private ObjectInputStream in;
-        private ObjectOutputStream out;
+        private DataInputStream in;
+        private OutputStream out;           // not a DataOutputStream: its synchronized write pins the virtual writer thread
         private final String clientId;
-        private boolean isConnected;
+        private final DeltaDecoder decoder = new DeltaDecoder();
+        private final OutboundQueue outbound = new OutboundQueue();
+        private volatile boolean isConnected;
 
         public ClientConnection(Socket socket, AuctionServer server) {
             this.socket = socket;
@@ -135,22 +390,22 @@ public class AuctionServer {
         public void run() {
             try {
                 // Setup streams
-                out = new ObjectOutputStream(socket.getOutputStream());
-                in = new ObjectInputStream(socket.getInputStream());
+                out = new BufferedOutputStream(socket.getOutputStream());
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
 
                 System.out.println("Client streams initialized: " + clientId);
 
-                // Send current auction data to the client if exists
-                AuctionData currentData = server.getCurrentAuctionData();
-                if (currentData != null) {
-                    sendAuctionData(currentData);
-                }
+                // The queued frames are written by a virtual thread of this connection
+                Thread.ofVirtual().name("auction-writer-" + clientId).start(this::writeLoop);
+
+                // Register with the server, which sends the current auction data if it exists
+                server.addClient(this);
 
                 // Continuously listen for client messages
                 while (isConnected) {
                     try {
-                        Object message = in.readObject();
-                        handleClientMessage(message);
+                        byte[] payload = MessageCodec.readPayload(in);
+                        server.handleClientMessage(this, decoder.decode(payload, 0, payload.length));
                     } catch (EOFException e) {
                         break;
                     } catch (ClassNotFoundException | IOException e) {
@@ -168,47 +423,66 @@ public class AuctionServer {
             }
         }
 
-        // Handles incoming auction data from client
-        private void handleClientMessage(Object message) {
-            if (message instanceof AuctionData auctionData) {
-                System.out.println("Received auction data from " + clientId + ": Bid=$" +
-                        String.format("%,d", auctionData.getCurrentBid()) +
-                        " by " + auctionData.getCurrentBidder());
+        // Queues an encoded frame for the writer
+        @Override
+        public boolean sendFrame(byte[] frame) {
+            return isConnected && outbound.add(frame);
+        }
 
-                server.broadcastAuctionData(auctionData);
+        @Override
+        public OutboundQueue.Offer sendState(byte[] frame, byte[] keep, Supplier<byte[]> snapshot) {
+            return isConnected ? outbound.addState(frame, keep, snapshot) : OutboundQueue.Offer.EVICT;
+        }
 
-            }
+        @Override
+        public int queueDepth() {
+            return outbound.size();
         }
 
-        // Sends auction data to the client
-        public boolean sendAuctionData(AuctionData data) {
+        // Writes the queued frames, flushing when the queue is empty
+        private void writeLoop() {
             try {
-                if (out != null && isConnected) {
-                    out.writeObject(data);
-                    out.flush();
-                    return true;
+                byte[] frame;
+                while ((frame = outbound.take()) != null) {
+                    out.write(frame);
+                    server.recordBytesSent(frame.length);
+                    if (outbound.isEmpty()) out.flush();
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (IOException e) {
-                System.err.println("Error sending data to client " + clientId + ": " + e.getMessage());
-                isConnected = false;
+                if (isConnected) {
+                    System.err.println("Error sending data to client " + clientId + ": " + e.getMessage());
+                }
+                disconnect();
             }
-            return false;
         }
 
-        // Disconnects the client
+        // Disconnects the client (the reader and the writer stop)
+        @Override
         public void disconnect() {
             isConnected = false;
+            outbound.close();
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing client " + clientId + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public String getClientId() {
+            return clientId;
         }
 
         // Cleans up resources after disconnect
         private void cleanup() {
             isConnected = false;
+            outbound.close();
             server.removeClient(this);
 
             try {
-                if (in != null) in.close();
-                if (out != null) out.close();
-                if (socket != null) socket.close();
+                if (socket != null) socket.close();         // also closes the streams (without flushing to a stalled client)
             } catch (IOException e) {
                 System.err.println("Error cleaning up client " + clientId + ": " + e.getMessage());
             }
@@ -0,0 +1,55 @@
+package Network;
+
+import java.io.Serializable;
+
+// Answer sent by the server to the club which placed a bid (only to that club)
+public class BidResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Result {
+        ACCEPTED,
+        STALE_VERSION,      // another bid (or a new player) came first, bid again on the new state
+        TOO_LOW,            // not above the current bid, or below the base price
+        ALREADY_LEADING,    // the club already has the highest bid
+        CLOSED,             // no player is open for bidding (paused, sold or no auction)
+        UNKNOWN_BIDDER      // the bidder is not a club of the server's database
+    }
+
+    private final Result result;
+    private final int bidVersion;           // version of the bid state after this bid was handled
+    private final int currentBid;
+    private final String currentBidder;
+
+    public BidResponse(Result result, int bidVersion, int currentBid, String currentBidder) {
+        this.result = result;
+        this.bidVersion = bidVersion;
+        this.currentBid = currentBid;
+        this.currentBidder = currentBidder;
+    }
+
+    public boolean isAccepted() {
+        return result == Result.ACCEPTED;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public int getBidVersion() {
+        return bidVersion;
+    }
+
+    public int getCurrentBid() {
+        return currentBid;
+    }
+
+    public String getCurrentBidder() {
+        return currentBidder;
+    }
+
+    @Override
+    public String toString() {
+        return "BidResponse{" + result + ", version=" + bidVersion + ", bid=" + currentBid + ", bidder=" + currentBidder + '}';
+    }
+}
@@ -0,0 +1,114 @@
+package Network;
+
+import controller.AuctionData;
+import model.Player;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Decodes the WireProtocol stream of one connection back into AuctionData.
+//
+// The decoder keeps the state built from the snapshot and the deltas received so far. Every decoded
+// message is a new AuctionData; the roster list is shared between messages until it changes, and a
+// changed roster is a new list, so a list handed out earlier is never modified.
+// A lot's deadline arrives as the milliseconds left when the server encoded it, and is put on this machine's
+// System.nanoTime() clock once, when it arrives, so neither a skew between the server's and this machine's wall
+// clocks nor a change of the wall clock moves the countdown.
+// Frames which hold a Java-serialized object are passed to MessageCodec.
+public class DeltaDecoder {
+    private boolean snapshotReceived = false;
+
+    // current state:
+    private int currentIndex;
+    private int timeLeft;
+    private int currentBid;
+    private String currentBidder;
+    private int flags;
+    private Player currentPlayer;
+    private String winningClubName;
+    private int finalSalePrice;
+    private int curPrice;
+    private int bidVersion;
+    private long deadlineNanos;
+    private List<Player> roster;
+
+    // Decodes the payload of one frame
+    public Object decode(byte[] payload, int offset, int length) throws IOException, ClassNotFoundException {
+        if (!WireProtocol.isBinary(payload, offset, length)) {
+            return MessageCodec.decode(payload, offset, length);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, offset, length));
+        byte version = in.readByte();
+        if (version != WireProtocol.VERSION) {
+            throw new StreamCorruptedException("Unsupported protocol version: " + version);
+        }
+
+        byte type = in.readByte();
+        if (type == WireProtocol.SNAPSHOT) {
+            snapshotReceived = true;
+        } else if (type != WireProtocol.DELTA) {
+            throw new StreamCorruptedException("Unknown message type: " + type);
+        } else if (!snapshotReceived) {
+            throw new StreamCorruptedException("Delta received before a snapshot");
+        }
+
+        int mask = in.readUnsignedShort();
+        if ((mask & WireProtocol.CURRENT_INDEX) != 0) currentIndex = in.readInt();
+        if ((mask & WireProtocol.TIME_LEFT) != 0) timeLeft = in.readInt();
+        if ((mask & WireProtocol.CURRENT_BID) != 0) currentBid = in.readInt();
+        if ((mask & WireProtocol.CURRENT_BIDDER) != 0) currentBidder = WireProtocol.readString(in);
+        if ((mask & WireProtocol.FLAGS) != 0) flags = in.readUnsignedByte();
+        if ((mask & WireProtocol.CURRENT_PLAYER) != 0) currentPlayer = WireProtocol.readPlayer(in);
+        if ((mask & WireProtocol.WINNING_CLUB) != 0) winningClubName = WireProtocol.readString(in);
+        if ((mask & WireProtocol.FINAL_PRICE) != 0) finalSalePrice = in.readInt();
+        if ((mask & WireProtocol.CUR_PRICE) != 0) curPrice = in.readInt();
+        if ((mask & WireProtocol.ROSTER) != 0) readRoster(in);
+        if ((mask & WireProtocol.BID_VERSION) != 0) bidVersion = in.readInt();
+        if ((mask & WireProtocol.DEADLINE) != 0) {
+            long millisLeft = in.readLong();
+            deadlineNanos = millisLeft == 0 ? 0 : System.nanoTime() + millisLeft * 1_000_000L;
+        }
+
+        AuctionData data = new AuctionData(roster, currentIndex, timeLeft, currentBid, currentBidder,
+                (flags & WireProtocol.PAUSED) != 0,
+                (flags & WireProtocol.STARTED) != 0,
+                (flags & WireProtocol.ENDED) != 0,
+                currentPlayer,
+                (flags & WireProtocol.SOLD) != 0,
+                winningClubName, finalSalePrice);
+        data.setCurPrice(curPrice);
+        data.setBidVersion(bidVersion);
+        data.setDeadlineNanos(deadlineNanos);
+        return data;
+    }
+
+    private void readRoster(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        int count = in.readInt();
+        if (size < 0) {
+            roster = null;
+            return;
+        }
+
+        List<Player> players = new ArrayList<>(size);
+        if (roster != null) {
+            players.addAll(roster.subList(0, Math.min(size, roster.size())));
+        }
+        while (players.size() < size) players.add(null);
+
+        for (int i = 0; i < count; i++) {
+            int index = in.readInt();
+            if (index < 0 || index >= size) {
+                throw new StreamCorruptedException("Roster index out of range: " + index);
+            }
+            players.set(index, WireProtocol.readPlayer(in));
+        }
+        roster = Collections.unmodifiableList(players);
+    }
+}
@@ -0,0 +1,181 @@
+package Network;
+
+import controller.AuctionData;
+import model.Player;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Encodes the AuctionData stream of one connection in the WireProtocol format.
+//
+// The encoder remembers what it sent last, so the first message is a full snapshot and every later
+// message carries only the changed fields. Roster entries are compared one by one and only the
+// players which changed (a sale, a release) are sent again.
+public class DeltaEncoder {
+    private boolean snapshotSent = false;
+
+    // last sent state:
+    private int currentIndex;
+    private int timeLeft;
+    private int currentBid;
+    private String currentBidder;
+    private int flags;
+    private Player currentPlayer;
+    private String winningClubName;
+    private int finalSalePrice;
+    private int curPrice;
+    private int bidVersion;
+    private long deadlineNanos;
+    private List<Player> roster;            // copies, so that changes made to the sender's players are noticed
+
+    // Encodes the data as a complete frame (length prefix included)
+    public synchronized byte[] encode(AuctionData data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        int flagsNow = flagsOf(data);
+        List<Integer> changedPlayers = snapshotSent ? changedRosterEntries(data.getPlayers()) : null;
+
+        int mask = WireProtocol.ALL_FIELDS;
+        if (snapshotSent) {
+            mask = 0;
+            if (data.getCurrentIndex() != currentIndex) mask |= WireProtocol.CURRENT_INDEX;
+            if (data.getTimeLeft() != timeLeft) mask |= WireProtocol.TIME_LEFT;
+            if (data.getCurrentBid() != currentBid) mask |= WireProtocol.CURRENT_BID;
+            if (!Objects.equals(data.getCurrentBidder(), currentBidder)) mask |= WireProtocol.CURRENT_BIDDER;
+            if (flagsNow != flags) mask |= WireProtocol.FLAGS;
+            if (!WireProtocol.samePlayer(data.getCurrentPlayer(), currentPlayer)) mask |= WireProtocol.CURRENT_PLAYER;
+            if (!Objects.equals(data.getWinningClubName(), winningClubName)) mask |= WireProtocol.WINNING_CLUB;
+            if (data.getFinalSalePrice() != finalSalePrice) mask |= WireProtocol.FINAL_PRICE;
+            if (data.getCurPrice() != curPrice) mask |= WireProtocol.CUR_PRICE;
+            if (data.getBidVersion() != bidVersion) mask |= WireProtocol.BID_VERSION;
+            if (data.getDeadlineNanos() != deadlineNanos) mask |= WireProtocol.DEADLINE;
+            if (changedPlayers == null ? data.getPlayers() != null || roster != null : !changedPlayers.isEmpty()) {
+                mask |= WireProtocol.ROSTER;
+            }
+        }
+
+        out.writeInt(0);                                    // length placeholder
+        out.writeByte(WireProtocol.VERSION);
+        out.writeByte(snapshotSent ? WireProtocol.DELTA : WireProtocol.SNAPSHOT);
+        out.writeShort(mask);
+
+        if ((mask & WireProtocol.CURRENT_INDEX) != 0) out.writeInt(data.getCurrentIndex());
+        if ((mask & WireProtocol.TIME_LEFT) != 0) out.writeInt(data.getTimeLeft());
+        if ((mask & WireProtocol.CURRENT_BID) != 0) out.writeInt(data.getCurrentBid());
+        if ((mask & WireProtocol.CURRENT_BIDDER) != 0) WireProtocol.writeString(out, data.getCurrentBidder());
+        if ((mask & WireProtocol.FLAGS) != 0) out.writeByte(flagsNow);
+        if ((mask & WireProtocol.CURRENT_PLAYER) != 0) WireProtocol.writePlayer(out, data.getCurrentPlayer());
+        if ((mask & WireProtocol.WINNING_CLUB) != 0) WireProtocol.writeString(out, data.getWinningClubName());
+        if ((mask & WireProtocol.FINAL_PRICE) != 0) out.writeInt(data.getFinalSalePrice());
+        if ((mask & WireProtocol.CUR_PRICE) != 0) out.writeInt(data.getCurPrice());
+        if ((mask & WireProtocol.ROSTER) != 0) writeRoster(out, data.getPlayers(), changedPlayers);
+        if ((mask & WireProtocol.BID_VERSION) != 0) out.writeInt(data.getBidVersion());
+        if ((mask & WireProtocol.DEADLINE) != 0) out.writeLong(data.getMillisLeft());
+        out.flush();
+
+        remember(data, flagsNow, changedPlayers);
+
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - 4;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    // Makes the next message a full snapshot again
+    public synchronized void reset() {
+        snapshotSent = false;
+        roster = null;
+    }
+
+
+
+    // roster: [int size (-1 = no list)][int count][count x (int index, player)]
+    private void writeRoster(DataOutputStream out, List<Player> players, List<Integer> changed) throws IOException {
+        if (players == null) {
+            out.writeInt(-1);
+            out.writeInt(0);
+            return;
+        }
+
+        out.writeInt(players.size());
+        if (changed == null) {                              // whole list
+            out.writeInt(players.size());
+            for (int i = 0; i < players.size(); i++) {
+                out.writeInt(i);
+                WireProtocol.writePlayer(out, players.get(i));
+            }
+        } else {
+            out.writeInt(changed.size());
+            for (int i : changed) {
+                out.writeInt(i);
+                WireProtocol.writePlayer(out, players.get(i));
+            }
+        }
+    }
+
+    // returns the indexes of the changed players, or null when the whole list has to be sent
+    private List<Integer> changedRosterEntries(List<Player> players) {
+        if (players == null || roster == null) return null;
+
+        List<Integer> changed = new ArrayList<>(0);
+        for (int i = 0; i < players.size(); i++) {
+            if (i >= roster.size() || !WireProtocol.samePlayer(players.get(i), roster.get(i))) {
+                changed.add(i);
+            }
+        }
+        if (players.size() < roster.size() && changed.isEmpty()) {
+            return null;                                    // the list only shrank (rare), send it again
+        }
+        return changed;
+    }
+
+    private void remember(AuctionData data, int flagsNow, List<Integer> changedPlayers) {
+        currentIndex = data.getCurrentIndex();
+        timeLeft = data.getTimeLeft();
+        currentBid = data.getCurrentBid();
+        currentBidder = data.getCurrentBidder();
+        flags = flagsNow;
+        currentPlayer = copyOf(data.getCurrentPlayer());
+        winningClubName = data.getWinningClubName();
+        finalSalePrice = data.getFinalSalePrice();
+        curPrice = data.getCurPrice();
+        bidVersion = data.getBidVersion();
+        deadlineNanos = data.getDeadlineNanos();
+
+        List<Player> players = data.getPlayers();
+        if (players == null) {
+            roster = null;
+        } else if (changedPlayers == null) {
+            roster = new ArrayList<>(players.size());
+            for (Player player : players) roster.add(copyOf(player));
+        } else {
+            while (roster.size() > players.size()) roster.removeLast();
+            for (int i : changedPlayers) {
+                if (i < roster.size()) roster.set(i, copyOf(players.get(i)));
+                else roster.add(copyOf(players.get(i)));
+            }
+        }
+        snapshotSent = true;
+    }
+
+    private static int flagsOf(AuctionData data) {
+        int flags = 0;
+        if (data.isBiddingPaused()) flags |= WireProtocol.PAUSED;
+        if (data.isAuctionStarted()) flags |= WireProtocol.STARTED;
+        if (data.isAuctionEnded()) flags |= WireProtocol.ENDED;
+        if (data.isCurrentPlayerSold()) flags |= WireProtocol.SOLD;
+        return flags;
+    }
+
+    private static Player copyOf(Player player) {
+        return player == null ? null : new Player(player);
+    }
+}
@@ -0,0 +1,66 @@
+package Network;
+
+import java.io.*;
+
+// Framing used on every auction socket: [int length][payload]
+//
+// The payload is one self-contained serialized object, or a WireProtocol message (see DeltaEncoder).
+// Because every frame carries its length,
+// the non-blocking server can collect a frame piece by piece and decode it only when it is complete.
+public class MessageCodec {
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    // Serializes a message into a complete frame (length prefix included)
+    public static byte[] encode(Object message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);                                    // length placeholder
+
+        ObjectOutputStream objectOut = new ObjectOutputStream(out);
+        objectOut.writeObject(message);
+        objectOut.flush();
+
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - 4;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    // Deserializes the payload of one frame
+    public static Object decode(byte[] payload, int offset, int length) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload, offset, length))) {
+            return in.readObject();
+        }
+    }
+
+    // Writes a complete frame to a blocking stream
+    public static void writeFrame(DataOutputStream out, byte[] frame) throws IOException {
+        out.write(frame);
+        out.flush();
+    }
+
+    // Reads one frame from a blocking stream and decodes it
+    public static Object readFrame(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte[] payload = readPayload(in);
+        return decode(payload, 0, payload.length);
+    }
+
+    // Reads the payload of one frame from a blocking stream (without decoding it)
+    public static byte[] readPayload(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        checkLength(length);
+
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    public static void checkLength(int length) throws IOException {
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new StreamCorruptedException("Invalid frame length: " + length);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package Network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+// Single-threaded, non-blocking server loop used by AuctionServer in NIO mode.
+//
+// Every client gets its own outbound queue. Sending only appends to that queue and wakes the selector;
+// the loop writes as much as each socket accepts and keeps the rest for the next OP_WRITE. A slow
+// client therefore delays only its own queue, never the broadcast to the other clients, and the queue
+// is bounded (see OutboundQueue).
+class NioEventLoop implements Runnable {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private final AuctionServer server;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+
+    // connections which got new outbound data (any thread adds, the loop thread sets their OP_WRITE)
+    private final Queue<NioConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile boolean isRunning;
+
+    NioEventLoop(AuctionServer server, int port) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    @Override
+    public void run() {
+        isRunning = true;
+
+        while (isRunning) {
+            try {
+                selector.select();
+                registerPendingWrites();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) continue;
+
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        NioConnection connection = (NioConnection) key.attachment();
+                        if (key.isReadable()) connection.read();
+                        if (key.isValid() && key.isWritable()) connection.write();
+                    }
+                }
+            } catch (IOException e) {
+                if (isRunning) {
+                    System.err.println("Error in NIO event loop: " + e.getMessage());
+                }
+            }
+        }
+
+        closeAll();
+    }
+
+    // Stops the loop (can be called from any thread)
+    void stop() {
+        isRunning = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        NioConnection connection = new NioConnection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        server.addClient(connection);
+    }
+
+    private void registerPendingWrites() {
+        NioConnection connection;
+        while ((connection = pendingWrites.poll()) != null) {
+            connection.writeScheduled = false;
+            if (connection.key != null && connection.key.isValid() && !connection.outbound.isEmpty()) {
+                connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection connection) {
+                connection.close();
+            }
+        }
+
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing NIO server: " + e.getMessage());
+        }
+    }
+
+
+
+
+    // One client connection served by the event loop
+    private class NioConnection implements AuctionConnection {
+        private final SocketChannel channel;
+        private final String clientId;
+        private final OutboundQueue outbound = new OutboundQueue();
+        private ByteBuffer current;                             // frame being written (loop thread only)
+        private final DeltaDecoder decoder = new DeltaDecoder();
+        private ByteBuffer inbound = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private SelectionKey key;
+        private volatile boolean writeScheduled;
+        private volatile boolean isConnected = true;
+
+        NioConnection(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            InetSocketAddress address = (InetSocketAddress) channel.getRemoteAddress();
+            this.clientId = address.getAddress().getHostAddress() + ":" + address.getPort();
+        }
+
+        // Queues a frame for this client (can be called from any thread)
+        @Override
+        public boolean sendFrame(byte[] frame) {
+            if (!isConnected || !outbound.add(frame)) return false;
+            scheduleWrite();
+            return true;
+        }
+
+        @Override
+        public OutboundQueue.Offer sendState(byte[] frame, byte[] keep, Supplier<byte[]> snapshot) {
+            if (!isConnected) return OutboundQueue.Offer.EVICT;
+
+            OutboundQueue.Offer offer = outbound.addState(frame, keep, snapshot);
+            if (offer != OutboundQueue.Offer.EVICT) scheduleWrite();
+            return offer;
+        }
+
+        private void scheduleWrite() {
+            if (!writeScheduled) {
+                writeScheduled = true;
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public int queueDepth() {
+            return outbound.size();
+        }
+
+        // Reads what is available and handles every complete frame
+        private void read() {
+            try {
+                if (!inbound.hasRemaining()) {
+                    inbound = grow(inbound, inbound.capacity() * 2);
+                }
+
+                int count = channel.read(inbound);
+                if (count < 0) {
+                    close();
+                    return;
+                }
+
+                inbound.flip();
+                int needed = 0;
+                while (inbound.remaining() >= 4) {
+                    int length = inbound.getInt(inbound.position());
+                    MessageCodec.checkLength(length);
+
+                    if (inbound.remaining() < 4 + length) {         // frame not complete yet
+                        needed = 4 + length;
+                        break;
+                    }
+
+                    int start = inbound.position() + 4;
+                    Object message = decoder.decode(inbound.array(), start, length);
+                    inbound.position(start + length);
+                    server.handleClientMessage(this, message);
+                }
+                inbound.compact();
+
+                if (needed > inbound.capacity()) {                  // make room for the whole frame
+                    inbound = grow(inbound, needed);
+                }
+
+            } catch (IOException | ClassNotFoundException e) {
+                if (isConnected) {
+                    System.err.println("Error reading from client " + clientId + ": " + e.getMessage());
+                }
+                close();
+            }
+        }
+
+        // Writes queued data until the socket buffer is full
+        private void write() {
+            try {
+                while (true) {
+                    if (current == null) {
+                        byte[] frame = outbound.poll();
+                        if (frame == null) break;
+                        current = ByteBuffer.wrap(frame);       // own position, shared bytes
+                    }
+                    server.recordBytesSent(channel.write(current));
+                    if (current.hasRemaining()) return;         // socket is full, wait for the next OP_WRITE
+                    current = null;
+                }
+                key.interestOps(SelectionKey.OP_READ);
+
+                if (!outbound.isEmpty()) {                      // data queued after the loop ended
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            } catch (IOException e) {
+                System.err.println("Error sending data to client " + clientId + ": " + e.getMessage());
+                close();
+            }
+        }
+
+        // Copies the unread bytes into a bigger buffer (left in write mode)
+        private ByteBuffer grow(ByteBuffer buffer, int capacity) {
+            ByteBuffer bigger = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            bigger.put(buffer);
+            return bigger;
+        }
+
+        @Override
+        public void disconnect() {
+            isConnected = false;
+            outbound.close();
+            selector.wakeup();
+            if (key != null) key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error cleaning up client " + clientId + ": " + e.getMessage());
+            }
+        }
+
+        private void close() {
+            if (!isConnected) return;
+            disconnect();
+            server.removeClient(this);
+            System.out.println("Client " + clientId + " cleaned up");
+        }
+
+        @Override
+        public String getClientId() {
+            return clientId;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package Network;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Bounded queue of the frames waiting to be written to one client, with the slow-consumer policy.
+//
+// The frames of the auction state stream (snapshot and deltas, see DeltaEncoder) only matter until a newer
+// state is known: when a client has COALESCE_AT of them waiting, they are all replaced by one snapshot of the
+// current state, which the client's DeltaDecoder applies like any other snapshot. A state frame which carries a
+// transition the client must see (a sale, the end of the auction) comes with a snapshot of its own state: it is
+// replaced by that snapshot in its place instead of being dropped, so the sale still reaches the admin, which
+// saves it. Other frames (bid responses) are never dropped. A client which is still behind after MAX_COALESCES coalesces in a row, or which has
+// MAX_FRAMES frames waiting, is evicted. The count of coalesces starts again whenever the queue runs empty.
+//
+// A lock and not synchronized, because the writer of a threaded connection is a virtual thread.
+class OutboundQueue {
+    static final int COALESCE_AT = 16;              // waiting state frames replaced by a snapshot
+    static final int MAX_COALESCES = 4;             // coalesces without catching up before the client is evicted
+    static final int MAX_FRAMES = 256;              // waiting frames of any kind before the client is evicted
+
+    // what happened to a state frame:
+    enum Offer {
+        QUEUED,
+        COALESCED,                                  // the waiting state frames were replaced by a snapshot
+        EVICT                                       // the client is too far behind (or gone)
+    }
+
+    private static final class Entry {
+        final byte[] frame;
+        final byte[] keep;                          // snapshot which replaces the frame when it is coalesced, or null
+        final boolean state;                        // part of the state stream (may be replaced by a snapshot)
+
+        Entry(byte[] frame, byte[] keep, boolean state) {
+            this.frame = frame;
+            this.keep = keep;
+            this.state = state;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private int stateFrames = 0;
+    private int coalesces = 0;
+    private boolean closed = false;
+
+
+    // Queues a frame which is not part of the state stream; false if the client has to be evicted
+    boolean add(byte[] frame) {
+        lock.lock();
+        try {
+            if (closed || entries.size() >= MAX_FRAMES) return false;
+            entries.add(new Entry(frame, null, false));
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Queues a frame of the state stream, or replaces the waiting ones by snapshot.get() (the current state);
+    // keep is a snapshot of the frame's own state if the frame must not be dropped, else null
+    Offer addState(byte[] frame, byte[] keep, Supplier<byte[]> snapshot) {
+        lock.lock();
+        try {
+            if (closed) return Offer.EVICT;
+
+            Offer offer = Offer.QUEUED;
+            if (stateFrames >= COALESCE_AT) {
+                if (++coalesces > MAX_COALESCES) return Offer.EVICT;
+
+                // the frames to keep become snapshots, in their place; they are not coalesced again:
+                for (int i = entries.size(); i > 0; i--) {
+                    Entry entry = entries.poll();
+                    if (!entry.state) entries.add(entry);
+                    else if (entry.keep != null) entries.add(new Entry(entry.keep, null, false));
+                }
+                stateFrames = 0;
+                frame = snapshot.get();
+                if (frame == null) return Offer.EVICT;
+                offer = Offer.COALESCED;
+            }
+
+            if (entries.size() >= MAX_FRAMES) return Offer.EVICT;
+            entries.add(new Entry(frame, keep, true));
+            stateFrames++;
+            notEmpty.signal();
+            return offer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Next frame to write, null if there is none
+    byte[] poll() {
+        lock.lock();
+        try {
+            return next();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Next frame to write, waiting for one; null when the queue is closed
+    byte[] take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (entries.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+            return closed ? null : next();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] next() {
+        Entry entry = entries.poll();
+        if (entry == null) return null;
+        if (entry.state) stateFrames--;
+        if (entries.isEmpty()) coalesces = 0;           // caught up
+        return entry.frame;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Drops the waiting frames and wakes the writer; later frames are refused
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            entries.clear();
+            stateFrames = 0;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
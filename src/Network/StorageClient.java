@@ -0,0 +1,162 @@
+package Network;
+
+import application.Main;
+import model.ClubDatabase;
+import model.PlayerDatabase;
+
+import java.io.*;
+import java.net.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Connection of a program to the StorageServer, used instead of the data files (see Constants.STORAGE_SERVER_PROPERTY).
+//
+// DatabaseJournal hands every change to record(); the changes are sent in batches, at most BATCH_MILLIS
+// after they were made, one request per batch. sync() sends the pending changes and loads the server's data
+// into Main.clubDatabase and Main.playerDatabase in the same request, if it changed since the last sync.
+public class StorageClient {
+    private static final long BATCH_MILLIS = 200;
+
+    private final String host;
+    private Socket socket;
+    private DataOutputStream out;
+    private DataInputStream in;
+
+    private final List<String> pending = new ArrayList<>();         // records waiting for the next batch
+    private Thread sender;
+    private long version = 0;                                       // version of the data loaded here (0: none)
+
+
+
+    public StorageClient(String host) throws IOException {
+        this.host = host;
+        connect();
+    }
+
+    private void connect() throws IOException {
+        socket = new Socket(host, StorageServer.PORT);
+        socket.setTcpNoDelay(true);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        System.out.println("Connected to storage server at " + host + ":" + StorageServer.PORT);
+    }
+
+
+
+    // **************************************************** //
+    //                      CHANGES                         //
+    // **************************************************** //
+
+    // a change made in this program, in DatabaseJournal record format:
+    public void record(String record) {
+        synchronized (pending) {
+            pending.add(record);
+            if (sender == null) {
+                sender = new Thread(this::sendLoop, "storage-sender");
+                sender.setDaemon(true);
+                sender.start();
+            }
+        }
+    }
+
+    private void sendLoop() {
+        while (true) {
+            try {
+                Thread.sleep(BATCH_MILLIS);
+                exchange(StorageRequest.NO_READ);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Error sending changes to the storage server: " + e.getMessage());
+            }
+        }
+    }
+
+
+
+    // **************************************************** //
+    //                      READ                            //
+    // **************************************************** //
+
+    // send the pending changes and bring the databases up to the server's data (creates them on the first call)
+    public void sync() throws IOException {
+        List<StorageResponse> responses = exchange(version);
+        if (responses.isEmpty() || !responses.get(0).isDataIncluded()) return;
+
+        List<String> clubLines = responses.get(0).getClubLines();
+        List<String> playerLines = new ArrayList<>();
+        for (StorageResponse response : responses) {
+            playerLines.addAll(response.getPlayerLines());
+        }
+
+        if (Main.clubDatabase == null || Main.playerDatabase == null) {
+            Main.playerDatabase = null;                 // the clubs must not call back into an old player database
+            Main.clubDatabase = ClubDatabase.fromLines(clubLines);
+            Main.playerDatabase = PlayerDatabase.fromLines(playerLines);
+        } else {
+            Main.clubDatabase.reloadFromLines(clubLines);
+            Main.playerDatabase.reloadFromLines(playerLines);
+        }
+        version = responses.get(0).getVersion();
+        System.out.println("Loaded " + playerLines.size() + " players and " + clubLines.size() + " clubs from the storage server");
+    }
+
+
+
+    // one request with the pending records; knownVersion NO_READ only sends them
+    private synchronized List<StorageResponse> exchange(long knownVersion) throws IOException {
+        List<String> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (batch.isEmpty() && knownVersion == StorageRequest.NO_READ) return List.of();
+
+        try {
+            if (socket == null || socket.isClosed()) connect();
+
+            MessageCodec.writeFrame(out, MessageCodec.encode(new StorageRequest(batch, knownVersion)));
+
+            List<StorageResponse> responses = new ArrayList<>();
+            StorageResponse response;
+            do {
+                response = (StorageResponse) MessageCodec.readFrame(in);
+                responses.add(response);
+            } while (!response.isLast());
+
+            for (String record : responses.get(0).getRejected()) {
+                System.err.println("Storage server rejected the change " + record);
+            }
+            return responses;
+
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            synchronized (pending) {
+                pending.addAll(0, batch);               // sent again with the next batch
+            }
+            closeSocket();
+            throw e instanceof IOException io ? io : new IOException("Bad answer from the storage server", e);
+        }
+    }
+
+
+
+    // send what is still pending and close the connection
+    public void close() {
+        try {
+            exchange(StorageRequest.NO_READ);
+        } catch (IOException e) {
+            System.err.println("Could not send the last changes to the storage server: " + e.getMessage());
+        }
+        if (sender != null) sender.interrupt();
+        closeSocket();
+    }
+
+    private void closeSocket() {
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the storage connection: " + e.getMessage());
+        }
+        socket = null;
+    }
+}
@@ -0,0 +1,34 @@
+package Network;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Request sent by a program to the StorageServer: a batch of changes and, optionally, a read of the data
+public class StorageRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final long NO_READ = -1;
+
+    private final ArrayList<String> records;    // changes, in DatabaseJournal record format, applied in this order
+    private final long knownVersion;            // version of the caller's data; NO_READ to only send the changes
+
+    public StorageRequest(List<String> records, long knownVersion) {
+        this.records = new ArrayList<>(records);
+        this.knownVersion = knownVersion;
+    }
+
+    public List<String> getRecords() {
+        return records;
+    }
+
+    public long getKnownVersion() {
+        return knownVersion;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageRequest{records=" + records.size() + (knownVersion != NO_READ ? ", read since " + knownVersion : "") + '}';
+    }
+}
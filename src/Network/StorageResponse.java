@@ -0,0 +1,68 @@
+package Network;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Answer of the StorageServer to one StorageRequest.
+//
+// When the caller's data is out of date the answer carries clubs.txt and players.txt as lines. The players
+// can be far more than one frame holds, so they come in several responses: the first one has the clubs and
+// the first players, the following ones more players, and the last one has last set.
+public class StorageResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long version;                 // version of the server's data after the request
+    private final int applied;                  // records of the request which were applied
+    private final ArrayList<String> rejected;   // records which could not be applied
+    private final boolean dataIncluded;         // false: the caller's data is already current
+    private final ArrayList<String> clubLines;
+    private final ArrayList<String> playerLines;
+    private final boolean last;
+
+    public StorageResponse(long version, int applied, List<String> rejected, boolean dataIncluded,
+                           List<String> clubLines, List<String> playerLines, boolean last) {
+        this.version = version;
+        this.applied = applied;
+        this.rejected = serializable(rejected);
+        this.dataIncluded = dataIncluded;
+        this.clubLines = serializable(clubLines);
+        this.playerLines = serializable(playerLines);
+        this.last = last;
+    }
+
+    // the lists are sent as ArrayLists (a subList view, for one, is not serializable); not copied if they are one
+    private static ArrayList<String> serializable(List<String> lines) {
+        if (lines == null) return null;
+        return lines instanceof ArrayList<String> list ? list : new ArrayList<>(lines);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public List<String> getRejected() {
+        return rejected;
+    }
+
+    public boolean isDataIncluded() {
+        return dataIncluded;
+    }
+
+    public List<String> getClubLines() {
+        return clubLines;
+    }
+
+    public List<String> getPlayerLines() {
+        return playerLines;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+}
@@ -0,0 +1,181 @@
+package Network;
+
+import application.Main;
+import model.Club;
+import model.DatabaseJournal;
+import model.PersistenceScheduler;
+import model.Player;
+import model.SaleSettlement;
+
+import java.io.*;
+import java.net.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Single owner of players.txt and clubs.txt (run inside an AuctionServer started with "store").
+//
+// The databases are loaded once into this process and kept here. Every other program (admin, clubs, viewers)
+// sends its changes as batches of DatabaseJournal records and reads the current data back, instead of writing
+// and re-reading the files itself; this server applies the records, journals them (one fsync per journal batch)
+// and lets the PersistenceScheduler rewrite the files. Sales decided by the AuctionEngine are settled here too.
+// The changes, the reads and the writes of the files all hold the PersistenceScheduler's lock, so in this process
+// no two of them overlap (the engine only names a sale, it does not change a player; see AuctionEngine.settle).
+//
+// The data has a version which changes with every applied change. A program which already has the current
+// version gets no data back, and the lines sent for one version are built once and shared by all the readers.
+public class StorageServer {
+    static final int PORT = 12346;
+    private static final int PLAYER_LINES_PER_RESPONSE = 20000;     // keeps every response far below MessageCodec.MAX_FRAME_SIZE
+
+    private final Object lock = PersistenceScheduler.getLock();     // every change, read and file write of the databases
+    private long version = System.currentTimeMillis();              // a restarted server never matches an old version
+
+    // lines of the current version (built on the first read after a change):
+    private long linesVersion = -1;
+    private List<String> clubLines;
+    private List<String> playerLines;
+
+    private ServerSocket serverSocket;
+    private volatile boolean isRunning;
+
+
+
+    // **************************************************** //
+    //                      CHANGES                         //
+    // **************************************************** //
+
+    // a sale decided by the engine of this process:
+    public SaleSettlement.Result settleSale(String playerName, String clubName, int price) {
+        synchronized (lock) {
+            SaleSettlement.Result result = SaleSettlement.settle(playerName, clubName, price);
+            if (result == SaleSettlement.Result.SETTLED) version++;
+            return result;
+        }
+    }
+
+    // a club of the database (the engine refuses the bids of any other club):
+    public boolean isClub(String clubName) {
+        synchronized (lock) {
+            return Main.clubDatabase.isPresentClub(clubName);
+        }
+    }
+
+    // applies the records of the request and answers with the data if the caller's version is old
+    List<StorageResponse> handle(StorageRequest request) {
+        synchronized (lock) {
+            int applied = 0;
+            List<String> rejected = new ArrayList<>();
+            for (String record : request.getRecords()) {
+                try {
+                    DatabaseJournal.applyAndJournal(record);
+                    applied++;
+                } catch (RuntimeException e) {
+                    System.err.println("STORAGE: rejected record " + record + ": " + e.getMessage());
+                    rejected.add(record);
+                }
+            }
+            if (applied > 0) version++;
+
+            List<StorageResponse> responses = new ArrayList<>();
+            if (request.getKnownVersion() == StorageRequest.NO_READ || request.getKnownVersion() == version) {
+                responses.add(new StorageResponse(version, applied, rejected, false, null, null, true));
+                return responses;
+            }
+
+            buildLines();
+            int from = 0;
+            do {
+                int to = Math.min(playerLines.size(), from + PLAYER_LINES_PER_RESPONSE);
+                boolean first = from == 0;
+                responses.add(new StorageResponse(version, first ? applied : 0, first ? rejected : List.of(), true,
+                        first ? clubLines : List.of(), new ArrayList<>(playerLines.subList(from, to)), to == playerLines.size()));
+                from = to;
+            } while (from < playerLines.size());
+            return responses;
+        }
+    }
+
+    private void buildLines() {
+        if (linesVersion == version) return;
+
+        clubLines = new ArrayList<>();
+        for (Club club : Main.clubDatabase.getClubs()) {
+            clubLines.add(club.toFileString());
+        }
+
+        List<Player> players = Main.playerDatabase.getPlayers();
+        playerLines = new ArrayList<>(players.size());
+        StringBuilder line = new StringBuilder(160);
+        for (Player player : players) {
+            line.setLength(0);
+            playerLines.add(player.appendFileString(line).toString());
+        }
+        linesVersion = version;
+    }
+
+
+
+    // **************************************************** //
+    //                      CONNECTIONS                     //
+    // **************************************************** //
+
+    // accepts programs until stop(), one thread per connection (a program keeps one connection open)
+    public void start() {
+        try {
+            serverSocket = new ServerSocket(PORT);
+            isRunning = true;
+            System.out.println("Storage Server started on port " + PORT);
+
+            while (isRunning) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread thread = new Thread(() -> serve(socket), "storage-conn-" + socket.getPort());
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    if (isRunning) {
+                        System.err.println("Error accepting storage connection: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Storage server failed to start: " + e.getMessage());
+        }
+    }
+
+    private void serve(Socket socket) {
+        String clientId = socket.getInetAddress().getHostAddress() + ":" + socket.getPort();
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+
+            System.out.println("Storage client connected: " + clientId);
+            while (isRunning) {
+                Object message = MessageCodec.readFrame(in);
+                if (!(message instanceof StorageRequest request)) {
+                    System.err.println("Unexpected message from storage client " + clientId + ": " + message);
+                    continue;
+                }
+
+                for (StorageResponse response : handle(request)) {
+                    out.write(MessageCodec.encode(response));
+                }
+                out.flush();
+            }
+        } catch (EOFException e) {
+            // the program closed its connection
+        } catch (IOException | ClassNotFoundException e) {
+            if (isRunning) System.err.println("Error serving storage client " + clientId + ": " + e.getMessage());
+        }
+        System.out.println("Storage client disconnected: " + clientId);
+    }
+
+    public void stop() {
+        isRunning = false;
+        try {
+            if (serverSocket != null && !serverSocket.isClosed()) serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error stopping storage server: " + e.getMessage());
+        }
+    }
+}
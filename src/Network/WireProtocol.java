@@ -0,0 +1,143 @@
+package Network;
+
+import model.Player;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// Binary auction wire format (version 3), carried inside MessageCodec frames.
+//
+// Payload: [version byte][type byte][field mask short][changed fields...]
+//
+// A stream starts with a SNAPSHOT (every field, including the roster) and continues with DELTAs which
+// carry only the fields that changed since the previous message on the same stream. A timer tick is
+// therefore a handful of bytes no matter how many players are in the roster:
+//      tick    -> TIME_LEFT
+//      bid     -> CURRENT_BID, CURRENT_BIDDER, BID_VERSION
+//      paused  -> FLAGS
+//      sold    -> FLAGS, CURRENT_PLAYER, WINNING_CLUB, FINAL_PRICE
+//      ended   -> FLAGS
+//
+// With a client countdown (AuctionEngine.setClientCountdown) there are no ticks at all: the start of a lot
+// carries DEADLINE, the milliseconds left until it closes when the frame is encoded, and the clients count
+// the seconds down themselves.
+// A pause and a resume send DEADLINE again (0 while paused, with the seconds left in TIME_LEFT).
+//
+// Java-serialized frames start with 0xAC (the serialization stream magic), which is never a valid
+// version byte, so both kinds of frames can share a connection.
+public class WireProtocol {
+    public static final byte VERSION = 4;         // 2: BID_VERSION field, 3: DEADLINE field, 4: DEADLINE is the time left
+
+    // message types:
+    public static final byte SNAPSHOT = 1;
+    public static final byte DELTA = 2;
+
+    // field mask bits:
+    public static final int CURRENT_INDEX = 1;
+    public static final int TIME_LEFT = 1 << 1;
+    public static final int CURRENT_BID = 1 << 2;
+    public static final int CURRENT_BIDDER = 1 << 3;
+    public static final int FLAGS = 1 << 4;
+    public static final int CURRENT_PLAYER = 1 << 5;
+    public static final int WINNING_CLUB = 1 << 6;
+    public static final int FINAL_PRICE = 1 << 7;
+    public static final int CUR_PRICE = 1 << 8;
+    public static final int ROSTER = 1 << 9;
+    public static final int BID_VERSION = 1 << 10;
+    public static final int DEADLINE = 1 << 11;
+    public static final int ALL_FIELDS = (1 << 12) - 1;
+
+    // bits of the FLAGS field:
+    public static final int PAUSED = 1;
+    public static final int STARTED = 1 << 1;
+    public static final int ENDED = 1 << 2;
+    public static final int SOLD = 1 << 3;
+
+    private static final byte JAVA_SERIALIZATION_MAGIC = (byte) 0xAC;
+
+    // Checks whether a frame payload is in this binary format (otherwise it is a serialized object)
+    public static boolean isBinary(byte[] payload, int offset, int length) {
+        return length > 0 && payload[offset] != JAVA_SERIALIZATION_MAGIC;
+    }
+
+
+
+    // ********** field encoding ********** //
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writePlayer(DataOutputStream out, Player player) throws IOException {
+        out.writeBoolean(player != null);
+        if (player == null) return;
+
+        out.writeUTF(player.getName());
+        out.writeUTF(player.getCountry());
+        out.writeInt(player.getAge());
+        out.writeDouble(player.getHeight());
+        out.writeUTF(player.getClub());
+        out.writeUTF(player.getPosition());
+        out.writeInt(player.getNumber());
+        out.writeInt(player.getSalary());
+
+        out.writeInt(player.getMatchesPlayed());
+        out.writeInt(player.getRunsScored());
+        out.writeInt(player.getBallsFaced());
+        out.writeInt(player.getFifties());
+        out.writeInt(player.getCenturies());
+        out.writeInt(player.getHattricks());
+        out.writeDouble(player.getOversBowled());
+        out.writeInt(player.getRunsGiven());
+        out.writeInt(player.getWicketsTaken());
+
+        out.writeInt(player.getBasePrice());
+        out.writeInt(player.getFinalBidPrice());
+    }
+
+    static Player readPlayer(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+
+        Player player = new Player();
+        player.setName(in.readUTF());
+        player.setCountry(in.readUTF());
+        player.setAge(in.readInt());
+        player.setHeight(in.readDouble());
+        player.setClub(in.readUTF());
+        player.setPosition(in.readUTF());
+        player.setNumber(in.readInt());
+        player.setSalary(in.readInt());
+
+        player.setMatchesPlayed(in.readInt());
+        player.setRunsScored(in.readInt());
+        player.setBallsFaced(in.readInt());
+        player.setFifties(in.readInt());
+        player.setCenturies(in.readInt());
+        player.setHattricks(in.readInt());
+        player.setOversBowled(in.readDouble());
+        player.setRunsGiven(in.readInt());
+        player.setWicketsTaken(in.readInt());
+
+        player.setBasePrice(in.readInt());
+        player.setFinalBidPrice(in.readInt());
+        return player;
+    }
+
+    // Compares the fields which change during an auction (a cheap check before sending a player again)
+    static boolean samePlayer(Player a, Player b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+
+        return a.getName().equals(b.getName())
+                && a.getClub().equals(b.getClub())
+                && a.getSalary() == b.getSalary()
+                && a.getBasePrice() == b.getBasePrice()
+                && a.getFinalBidPrice() == b.getFinalBidPrice();
+    }
+}
@@ -5,64 +5,86 @@ import javafx.fxml.FXMLLoader;                      // to load .fxml files
 import javafx.scene.Scene;                          // Scene = container for all UI elements (buttons, layouts etc.)
 import javafx.stage.Stage;                          // Stage = main window of JavaFX application
 import model.ClubDatabase;
+import model.CreateFXML;
+import Network.StorageClient;
+import model.Constants;
+import model.DatabaseJournal;
+import model.PersistenceScheduler;
 import model.PlayerDatabase;
+import model.PlayerSnapshot;
 import model.UserDatabase;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class Main extends Application {             // Main class must extend the built-in Application class and must override the start() method
 
     public static Stage primaryStage;               // used to switch scenes
     public static ClubDatabase clubDatabase;
     public static PlayerDatabase playerDatabase;
+    public static StorageClient storageClient;      // set when a storage server owns the data files
     private static List<Scene> sceneStack = new ArrayList<>();
+    private static final int MAX_SCENE_HISTORY = 20;                // pages remembered for goBack()
+
+    // screens with no per-visit state (no initialize(), no input fields) are built once and their scene is reused:
+    private static final Set<String> REUSABLE_SCENES = Set.of(
+            "LoginPage.fxml", "MainMenu.fxml", "AboutUs.fxml", "UnderConstruction.fxml",
+            "AdminDashboard.fxml", "ClubDashboard.fxml", "ViewerDashboard.fxml");
+    private static final Map<String, Scene> sceneCache = new HashMap<>();
+    private static final Map<String, byte[]> templateCache = new HashMap<>();     // FXML documents of the view package
 
     public static void main(String[] args) throws IOException {        // starting point of the JavaFX app
-        clubDatabase = new ClubDatabase();
+        String storageHost = System.getProperty(Constants.STORAGE_SERVER_PROPERTY);
+        if (storageHost != null && !storageHost.isEmpty()) {
+            startWithStorageServer(storageHost);
+            launch(args);
+            return;
+        }
+
+        clubDatabase = ClubDatabase.load();
         if (clubDatabase == null) {
             System.out.println("Club database is null");
             System.exit(0);
         }
 
-        playerDatabase = new PlayerDatabase();
+        playerDatabase = PlayerDatabase.load();
         if (playerDatabase == null) {
             System.out.println("Error: clubDatabase and playerDatabase are null!");
             System.exit(0);
         }
 
         UserDatabase.loadUsers();
+        DatabaseJournal.replay();          // apply the changes journaled after the last compaction
 
-
-        // background daemon thread for continuously updating the database:
-        Thread backgroundUpdater = new Thread(() -> {
-            while (true) {
-                try {
-                    synchronized (clubDatabase) {
-                        clubDatabase.uploadInfoToFile();
-                        clubDatabase.reloadFromFile();
-                    }
-
-                    synchronized (playerDatabase) {
-                        playerDatabase.uploadInfoToFile();
-                        playerDatabase.reloadFromFile();
-                    }
-
-                    System.out.println("Database saved and refreshed");
-                    Thread.sleep(12000); // every 12 seconds
-                } catch (Exception e) {
-                    System.err.println("Error in background updater: " + e.getMessage());
-                }
-            }
-        });
-        backgroundUpdater.setDaemon(true);
-        backgroundUpdater.start();
+        // changes are saved in the background by the PersistenceScheduler, only when the databases are dirty
 
         launch(args);                               // initialize javafx and call the start() method
     }
 
+    // the data is read from and changed through the storage server, this program never writes the data files:
+    private static void startWithStorageServer(String host) {
+        try {
+            storageClient = new StorageClient(host);
+            storageClient.sync();                   // creates clubDatabase and playerDatabase
+        } catch (IOException e) {
+            System.out.println("Storage server " + host + " is not reachable: " + e.getMessage());
+            System.exit(0);
+        }
+
+        DatabaseJournal.setRemote(storageClient::record);          // every journaled change goes to the server
+        PersistenceScheduler.setEnabled(false);
+        UserDatabase.loadUsers();
+    }
+
     @Override
     public void start(Stage stage) throws Exception {       // main GUI setup method
         primaryStage = stage;
@@ -80,16 +102,18 @@ public class Main extends Application {             // Main class must extend th
     public static void setRoot(String fxmlFile) {
         try {
             System.out.println("primaryStage: " + primaryStage);                  // added for debugging
-            File newFile = new File("src/view/" + fxmlFile);    // load the FXML file from the view package(folder)
-            if (newFile == null) {
-                System.err.println("FXML file not found: /view/" + fxmlFile);     // added for debugging
-                return;
+            Scene scene = sceneCache.get(fxmlFile);
+            if (scene == null) {
+                scene = loadScene(fxmlFile);
+                if (REUSABLE_SCENES.contains(fxmlFile)) {
+                    sceneCache.put(fxmlFile, scene);
+                }
             }
-            System.out.println("Loading FXML from: " + newFile);                  // added for debugging
-            FXMLLoader loader = new FXMLLoader(newFile.toURI().toURL());
 
-            Scene scene = new Scene(loader.load());                         // load the fxml file (scene/ UI to be shown)
             sceneStack.addLast(scene);
+            if (sceneStack.size() > MAX_SCENE_HISTORY) {
+                sceneStack.removeFirst();                                   // forget the oldest page
+            }
             primaryStage.setScene(scene);                                   // set the newly loaded scene in the stage
             System.out.println("Scene loaded successfully!");            // added for debugging
         } catch (Exception e) {
@@ -99,6 +123,32 @@ public class Main extends Application {             // Main class must extend th
     }
 
 
+    // parse a view: generated documents come from CreateFXML, the others from the view package (read once)
+    private static Scene loadScene(String fxmlFile) throws IOException {
+        URL location = Main.class.getResource("/view/" + fxmlFile);
+        if (location == null) {
+            location = new File("src/view/" + fxmlFile).toURI().toURL();      // view folder not on the classpath
+        }
+        System.out.println("Loading FXML from: " + location);                 // added for debugging
+        FXMLLoader loader = new FXMLLoader(location);                         // the location resolves @style1.css and @images
+
+        byte[] document;
+        String generated = CreateFXML.getDocument(fxmlFile);                // cards, lists and profile pages are generated in memory
+        if (generated != null) {
+            document = generated.getBytes(StandardCharsets.UTF_8);
+        } else {
+            document = templateCache.get(fxmlFile);
+            if (document == null) {
+                try (InputStream in = location.openStream()) {
+                    document = in.readAllBytes();
+                }
+                templateCache.put(fxmlFile, document);
+            }
+        }
+        return new Scene(loader.load(new ByteArrayInputStream(document)));    // load the fxml file (scene/ UI to be shown)
+    }
+
+
 
     // go to the previous page:
     public static void goBack() {
@@ -111,7 +161,9 @@ public class Main extends Application {             // Main class must extend th
 
     // delete the previous scene:
     public static void deletePreviousSceneFromStack() {
-        sceneStack.remove(sceneStack.size() - 2);
+        if (sceneStack.size() > 1) {
+            sceneStack.remove(sceneStack.size() - 2);
+        }
 
     }
 
@@ -119,20 +171,45 @@ public class Main extends Application {             // Main class must extend th
     // update the databases before exiting the program:
     @Override
     public void stop() throws Exception {
-        playerDatabase.uploadInfoToFile();
-        clubDatabase.uploadInfoToFile();
+        if (storageClient != null) {
+            storageClient.close();          // sends the last changes, the server saves them
+            UserDatabase.updateUserDatabase();
+            return;
+        }
+
+        DatabaseJournal.compact();          // rewrites players.txt and clubs.txt, then empties the journal
         UserDatabase.updateUserDatabase();
 
+        try {
+            PlayerSnapshot.write(playerDatabase.getPlayers());      // players.txt in binary form, for a faster next start
+        } catch (IOException e) {
+            System.err.println("Could not write the player snapshot: " + e.getMessage());
+        }
+
     }
 
+    // called before System.exit (which skips stop()): save what is not on disk yet, no file is rewritten
+    // unless it changed since it was last written
     public static void updateDatabase() throws Exception {
-        playerDatabase.uploadInfoToFile();
-        clubDatabase.uploadInfoToFile();
+        if (storageClient != null) {
+            storageClient.sync();
+        } else {
+            DatabaseJournal.compact();
+        }
         UserDatabase.updateUserDatabase();
 
     }
 
 
+    // bring the databases up to date with the saved data before showing a list: through the storage server if
+    // there is one; otherwise the databases in memory are the data (the files are written in the background)
+    public static void syncDatabases() throws IOException {
+        if (storageClient != null) {
+            storageClient.sync();
+        }
+    }
+
+
     public static void setStageTitle (String title) {
         primaryStage.setTitle(title);
     }
@@ -0,0 +1,47 @@
+package controller;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+import java.util.function.Consumer;
+
+// Counts down the seconds of the current lot on the FX thread when the server only sends the lot's deadline
+// (see AuctionData.getDeadlineNanos): the timer wakes up once per displayed second, when the value changes, and
+// hands the latest auction data to the screen's timer update. Without a deadline it does nothing and the
+// screen is updated by the server's ticks as before.
+class AuctionCountdown {
+    private final Consumer<AuctionData> onSecond;
+    private final PauseTransition timer = new PauseTransition();
+    private AuctionData data;
+
+    AuctionCountdown(Consumer<AuctionData> onSecond) {
+        this.onSecond = onSecond;
+        timer.setOnFinished(e -> {
+            this.onSecond.accept(data);
+            schedule();
+        });
+    }
+
+    // called with every message from the server
+    void follow(AuctionData auctionData) {
+        data = auctionData;
+        timer.stop();
+        schedule();
+    }
+
+    void stop() {
+        timer.stop();
+    }
+
+    private void schedule() {
+        if (data == null || !data.isCountingDown()) return;
+
+        long nanosLeft = data.getNanosLeft();
+        if (nanosLeft <= 0) return;                     // the server closes the lot
+
+        long untilChange = nanosLeft % 1_000_000_000L;
+        if (untilChange == 0) untilChange = 1_000_000_000L;
+        timer.setDuration(Duration.millis(untilChange / 1_000_000.0 + 1));
+        timer.playFromStart();
+    }
+}
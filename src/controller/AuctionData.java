@@ -21,6 +21,13 @@ public class AuctionData implements Serializable {
     private boolean currentPlayerSold;
     private String winningClubName;
     private int finalSalePrice;
+    private int bidVersion;             // bid state version on the server (a bid carries the version it was made on)
+
+    // With a client countdown the server does not send a tick every second: it sends the time left until the
+    // lot closes, once, and the clients count down themselves. Every machine keeps the deadline on its own
+    // System.nanoTime() clock (the clocks of two machines can not be compared, see DeltaDecoder). 0 while the
+    // clock is stopped (paused, sold, no countdown); timeLeft then holds the seconds left.
+    private transient long deadlineNanos;
 
     public AuctionData(List<Player> players, int currentIndex, int timeLeft,
                        int currentBid, String currentBidder, boolean isBiddingPaused,
@@ -137,6 +144,45 @@ public class AuctionData implements Serializable {
         this.curPrice += amount;
     }
 
+    public int getBidVersion() {
+        return bidVersion;
+    }
+
+    public void setBidVersion(int bidVersion) {
+        this.bidVersion = bidVersion;
+    }
+
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public void setDeadlineNanos(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    // time left until the deadline, as sent to the clients (at least 1 while there is a deadline, 0 if there is none)
+    public long getMillisLeft() {
+        if (deadlineNanos == 0) return 0;
+        return Math.max(1, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    // the clock of the lot runs on the clients (see deadlineNanos)
+    public boolean isCountingDown() {
+        return deadlineNanos != 0 && !isBiddingPaused;
+    }
+
+    // time left of the current lot on this machine's clock (0 if it is not counted down here)
+    public long getNanosLeft() {
+        if (!isCountingDown()) return 0;
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    // seconds left of the current lot, counted down here while the lot's deadline is known
+    public int getSecondsLeft() {
+        if (!isCountingDown()) return timeLeft;
+        return (int) ((getNanosLeft() + 999_999_999L) / 1_000_000_000L);
+    }
+
     @Override
     public String toString() {
         return "AuctionData{" +
@@ -150,6 +196,8 @@ public class AuctionData implements Serializable {
                 ", auctionEnded=" + auctionEnded +
                 ", currentPlayer=" + currentPlayer +
                 ", curPrice=" + curPrice +
+                ", bidVersion=" + bidVersion +
+                ", deadlineNanos=" + deadlineNanos +
                 '}';
     }
 }
\ No newline at end of file
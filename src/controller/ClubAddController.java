@@ -134,13 +134,12 @@ public class ClubAddController {
                 newClub.setBudget(budget);
                 newClub.setTrophiesCount(trophies);
 
+                DatabaseJournal.beginChange();
                 if (Main.clubDatabase.addNewClub(newClub)) {
+                    DatabaseJournal.clubAdded(newClub);
                     showAlert("Success", "Club added.");
 
-                    Main.playerDatabase.uploadInfoToFile();
-                    Main.clubDatabase.uploadInfoToFile();
-                    Main.clubDatabase.reloadFromFile();
-                    Main.playerDatabase.reloadFromFile();
+                    Main.syncDatabases();
 
                     Main.setRoot("AdminDashboard.fxml");
                 } else {
@@ -15,28 +15,19 @@ public class ClubDashboardController {
 
     @FXML
     public void handleSearchPlayer(ActionEvent event) throws IOException {
-        Main.playerDatabase.uploadInfoToFile();
-        Main.clubDatabase.uploadInfoToFile();
-        Main.clubDatabase.reloadFromFile();
-        Main.playerDatabase.reloadFromFile();
+        Main.syncDatabases();
         Main.setRoot("SearchPlayer.fxml");
     }
 
     @FXML
     public void handlePlayers(ActionEvent event) throws IOException {
-        Main.playerDatabase.uploadInfoToFile();
-        Main.clubDatabase.uploadInfoToFile();
-        Main.clubDatabase.reloadFromFile();
-        Main.playerDatabase.reloadFromFile();
+        Main.syncDatabases();
         Main.setRoot("Players.fxml");
     }
 
     @FXML
     public void handleTeams(ActionEvent event) throws IOException {
-        Main.playerDatabase.uploadInfoToFile();
-        Main.clubDatabase.uploadInfoToFile();
-        Main.clubDatabase.reloadFromFile();
-        Main.playerDatabase.reloadFromFile();
+        Main.syncDatabases();
         Main.setRoot("SearchClub.fxml");
     }
 
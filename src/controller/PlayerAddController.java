@@ -3,6 +3,7 @@ package controller;
 import application.Main;
 import model.AlertHelper;
 import model.CreateFXML;
+import model.DatabaseJournal;
 import model.Player;
 
 import static model.Constants.*;
@@ -13,8 +14,6 @@ import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.TextField;
 
-import java.io.FileNotFoundException;
-import java.io.IOException;
 
 
 public class PlayerAddController {
@@ -250,13 +249,11 @@ public class PlayerAddController {
             newPlayer.setBasePrice(basePrice);
             newPlayer.setFinalBidPrice(0);
 
+            DatabaseJournal.beginChange();
             if (Main.playerDatabase.addNewPlayer(newPlayer)) {
                 AlertHelper.showAlert("Player added", "Player successfully added to the database");
 
-                Main.playerDatabase.uploadInfoToFile();
-                Main.clubDatabase.uploadInfoToFile();
-                Main.clubDatabase.reloadFromFile();
-                Main.playerDatabase.reloadFromFile();
+                DatabaseJournal.playerAdded(newPlayer);
 
                 Main.setRoot("AdminDashboard.fxml");
             } else {
@@ -266,10 +263,6 @@ public class PlayerAddController {
 
         } catch (RuntimeException e) {
             AlertHelper.showAlert("Error", "Please make sure all numeric field contains valid numbers");
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
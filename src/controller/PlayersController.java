@@ -1,24 +1,26 @@
 package controller;
 
 import application.Main;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.AnchorPane;
 import model.Club;
 import model.CreateFXML;
 import model.Player;
+import model.PlayerSortKey;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 
 public class PlayersController {
     @FXML
-    private AnchorPane playerListAnchorPane;
+    private ListView<Player> playerListView;
     @FXML
     private ChoiceBox<String> sortByChoiceField;
     @FXML
@@ -32,6 +34,8 @@ public class PlayersController {
     private Button sortByHeaderButton;
 
     List<Player> players;
+    private final ObservableList<Player> rows = FXCollections.observableArrayList();
+    private String sortBy = "Name";             // the third column shows this field
 
     @FXML
     public void initialize() {
@@ -45,6 +49,10 @@ public class PlayersController {
         orderChoiceField.getItems().addAll("Ascending", "Descending");
         orderChoiceField.setValue("Ascending");
 
+        // the list view creates rows only for the visible players and reuses them while scrolling:
+        playerListView.setCellFactory(listView -> new PlayerRow());
+        playerListView.setItems(rows);
+
         // Initial population of list
         updateList();
     }
@@ -52,7 +60,7 @@ public class PlayersController {
 
     public void updateList() {
         System.out.println("updateList called");
-        String sortBy = sortByChoiceField.getValue();
+        sortBy = sortByChoiceField.getValue();
         String order = orderChoiceField.getValue();
 
         if (sortBy == null) sortBy = "Name";
@@ -61,63 +69,40 @@ public class PlayersController {
         // set the sorting criteria:
         setSortByHeaderButton(sortBy);
 
-        List<Player> sortedPlayers = Main.playerDatabase.getPlayers();
-        Comparator<Player> comparator;
-
-        switch (sortBy) {
-            case "Age":
-                comparator = Comparator.comparingInt(Player::getAge);
-                break;
-            case "Salary":
-                comparator = Comparator.comparingInt(Player::getSalary);
-                break;
-            case "Matches":
-                comparator = Comparator.comparingInt(Player::getMatchesPlayed);
-                break;
-            case "Runs":
-                comparator = Comparator.comparingInt(Player::getRunsScored);
-                break;
-            case "Wickets":
-                comparator = Comparator.comparingInt(Player::getWicketsTaken);
-                break;
-            case "Height":
-                comparator = Comparator.comparingDouble(Player::getHeight);
-                break;
-            case "Country":
-                comparator = Comparator.comparing(Player::getCountry, String.CASE_INSENSITIVE_ORDER);
-                break;
-            case "Position":
-                comparator = Comparator.comparing(Player::getPosition, String.CASE_INSENSITIVE_ORDER);
-                break;
-            case "Base Price":
-                comparator = Comparator.comparingInt(Player::getBasePrice);
-                break;
-            case "Name":
-            default:
-                comparator = Comparator.comparing(Player::getName, String.CASE_INSENSITIVE_ORDER);
-                break;
-        }
-
-        if ("Descending".equals(order)) {
-            comparator = comparator.reversed();
-        }
+        // the database keeps the players sorted by every field, so nothing is sorted here:
+        PlayerSortKey key = PlayerSortKey.fromLabel(sortBy);
+        List<Player> sortedPlayers = Main.playerDatabase.getSortedPlayers(key, "Descending".equals(order));
 
-        // sort the clubs according to the given criteria:
-        sortedPlayers.sort(comparator);
 
+        // show the sorted players (the visible rows are updated, no nodes are created):
+        rows.setAll(sortedPlayers);
+        playerListView.refresh();               // same players, but the third column may have changed
+    }
 
-        // clear the current anchor pane data: (current list is erased, so that we can show the sorted data)
-        playerListAnchorPane.getChildren().clear();
 
+    private String sortByText(Player player) {
+        return switch (sortBy) {
+            case "Age" -> String.valueOf(player.getAge());
+            case "Salary" -> String.valueOf(player.getSalary());
+            case "Matches" -> String.valueOf(player.getMatchesPlayed());
+            case "Runs" -> String.valueOf(player.getRunsScored());
+            case "Wickets" -> String.valueOf(player.getWicketsTaken());
+            case "Height" -> String.valueOf(player.getHeight());
+            case "Position" -> player.getPosition();
+            case "Base Price" -> String.valueOf(player.getBasePrice());
+            default -> player.getCountry();             // Name, Country
+        };
+    }
 
-        // create rows for all clubs in the anchor pane:
-        double layoutY = 0.0; // Starting Y position
 
-        for (Player player : sortedPlayers) {
-            AnchorPane row = new AnchorPane();
-            row.setLayoutY(layoutY); // Set the Y position for the row itself
+    // one row of the list: player name, club name and the sorted-by field
+    private class PlayerRow extends ListCell<Player> {
+        private final AnchorPane row = new AnchorPane();
+        private final Button playerNameBtn = new Button();
+        private final Button clubNameBtn = new Button();
+        private final Button sortByBtn = new Button();
 
-            Button playerNameBtn = new Button(player.getName());
+        PlayerRow() {
             playerNameBtn.setLayoutX(28);
             playerNameBtn.setPrefWidth(250);
             playerNameBtn.setPrefHeight(40);
@@ -125,7 +110,6 @@ public class PlayersController {
             playerNameBtn.setId("playerNameButton");
             playerNameBtn.setOnAction(e -> showPlayerCard(e)); // Just pass the ActionEvent
 
-            Button clubNameBtn = new Button(player.getClub());
             clubNameBtn.setLayoutX(348);
             clubNameBtn.setPrefWidth(250);
             clubNameBtn.setPrefHeight(40);
@@ -133,35 +117,28 @@ public class PlayersController {
             clubNameBtn.getStyleClass().add("sidebar-button");
             clubNameBtn.setOnAction(e -> showClubCard(e)); // Just pass the ActionEvent
 
-
-            Button sortByBtn = new Button();
-            switch (sortBy) {
-                case "Name" -> sortByBtn.setText(player.getCountry());
-                case "Age" -> sortByBtn.setText(String.valueOf(player.getAge()));
-                case "Salary" -> sortByBtn.setText(String.valueOf(player.getSalary()));
-                case "Matches" -> sortByBtn.setText(String.valueOf(player.getMatchesPlayed()));
-                case "Runs" -> sortByBtn.setText(String.valueOf(player.getRunsScored()));
-                case "Wickets" -> sortByBtn.setText(String.valueOf(player.getWicketsTaken()));
-                case "Height" -> sortByBtn.setText(String.valueOf(player.getHeight()));
-                case "Country" -> sortByBtn.setText(player.getCountry());
-                case "Position" -> sortByBtn.setText(player.getPosition());
-                case "Base Price" -> sortByBtn.setText(String.valueOf(player.getBasePrice()));
-            }
             sortByBtn.setLayoutX(675.0);
             sortByBtn.setPrefWidth(163);
             sortByBtn.setPrefHeight(40);
             sortByBtn.setId("sortByButton");
             sortByBtn.getStyleClass().add("sidebar-button");
 
-
             row.getChildren().addAll(playerNameBtn, clubNameBtn, sortByBtn);
-            playerListAnchorPane.getChildren().add(row); // Add this row to the anchor pane
-
-            System.out.println("Created row for " + player.getName());
-
-            layoutY += 50; // Next row will be 50px below
+            setText(null);
         }
 
+        @Override
+        protected void updateItem(Player player, boolean empty) {
+            super.updateItem(player, empty);
+            if (empty || player == null) {
+                setGraphic(null);
+                return;
+            }
+            playerNameBtn.setText(player.getName());
+            clubNameBtn.setText(player.getClub());
+            sortByBtn.setText(sortByText(player));
+            setGraphic(row);
+        }
     }
 
     @FXML
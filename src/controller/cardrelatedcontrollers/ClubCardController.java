@@ -6,8 +6,6 @@ import javafx.fxml.FXML;
 import javafx.scene.control.TextField;
 import model.*;
 
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.util.List;
 
 import static model.AlertHelper.highlightError;
@@ -152,6 +150,7 @@ public class ClubCardController {
 
 
             // UPDATE THE CLUB INFO USING SETTERS (ALSO THE CLUB NAME OF ALL THE PLAYERS IN THIS CLUB IS UPDATED INSIDE setClubName()):
+            DatabaseJournal.beginChange();
             boolean isUpdated = false;
             if (!newClubName.equalsIgnoreCase(clubName)) {
                 club.setClubName(newClubName);
@@ -180,10 +179,7 @@ public class ClubCardController {
                 AlertHelper.showAlert("Success", "Club Information Updated");
                 CreateFXML.createClubFXML(club);
 
-                Main.playerDatabase.uploadInfoToFile();
-                Main.clubDatabase.uploadInfoToFile();
-                Main.clubDatabase.reloadFromFile();
-                Main.playerDatabase.reloadFromFile();
+                DatabaseJournal.clubUpdated(clubName, club);
 
                 CreateFXML.createClubProfileFXML(club.getUsername());
                 Main.deletePreviousSceneFromStack();
@@ -197,10 +193,6 @@ public class ClubCardController {
             AlertHelper.showAlert("Error", "Please ensure that all numeric fields are filled with integers");
             budgetField.setText(String.valueOf(budget));
             trophiesField.setText(String.valueOf(trophies));
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
@@ -221,7 +213,10 @@ public class ClubCardController {
             UserDatabase.deleteUser(Session.getUsername());
 
             // delete from club database and release all players (safely released all players internally)
-            Main.clubDatabase.deleteClub(clubName);
+            DatabaseJournal.beginChange();
+            if (Main.clubDatabase.deleteClub(clubName)) {
+                DatabaseJournal.clubDeleted(clubName);
+            }
             AlertHelper.showAlert("Account Deleted", "Your club account has been successfully deleted.");
             Main.setRoot("LoginPage.fxml");
 
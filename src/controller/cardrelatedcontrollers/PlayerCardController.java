@@ -7,10 +7,10 @@ import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
 import model.AlertHelper;
 import model.CreateFXML;
+import model.DatabaseJournal;
 import model.Player;
 import model.Session;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 
 import static model.Constants.*;
@@ -220,6 +220,7 @@ public class PlayerCardController {
             }
 
             // APPLY CHANGES IF ANY FIELD CHANGED
+            DatabaseJournal.beginChange();
             boolean isUpdated = false;
 
             if (!newCountryName.equalsIgnoreCase(player.getCountry())) {
@@ -294,10 +295,7 @@ public class PlayerCardController {
                 AlertHelper.showAlert("Success", "Player information updated successfully");
                 CreateFXML.createPlayerFXML(player);
 
-                Main.playerDatabase.uploadInfoToFile();
-                Main.clubDatabase.uploadInfoToFile();
-                Main.clubDatabase.reloadFromFile();
-                Main.playerDatabase.reloadFromFile();
+                DatabaseJournal.playerUpdated(player);
 
                 Main.deletePreviousSceneFromStack();
                 Main.setRoot("AdminDashboard.fxml");
@@ -305,10 +303,6 @@ public class PlayerCardController {
         } catch (NumberFormatException e) {
             AlertHelper.showAlert("Error", "Please ensure that all numeric fields are valid integers");
             resetAllFields();
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
@@ -323,13 +317,11 @@ public class PlayerCardController {
                 Player player = Main.playerDatabase.getPlayer(playerName);
 
                 // player will be removed from both player database and club:
+                DatabaseJournal.beginChange();
                 Main.playerDatabase.removePlayer(player);
                 AlertHelper.showAlert("Success", "Player " + playerNameField.getText() + " has been deleted");
 
-                Main.playerDatabase.uploadInfoToFile();
-                Main.clubDatabase.uploadInfoToFile();
-                Main.clubDatabase.reloadFromFile();
-                Main.playerDatabase.reloadFromFile();
+                DatabaseJournal.playerRemoved(player);
 
                 Main.deletePreviousSceneFromStack();
                 Main.setRoot("AdminDashboard.fxml");
@@ -349,12 +341,10 @@ public class PlayerCardController {
 
                 // player's club is updated in both clubdatabase and playerdatabase:
                 Player player = Main.playerDatabase.getPlayer(playerName);
+                DatabaseJournal.beginChange();
                 Main.clubDatabase.removePlayerFromClub(player);
 
-                Main.playerDatabase.uploadInfoToFile();
-                Main.clubDatabase.uploadInfoToFile();
-                Main.clubDatabase.reloadFromFile();
-                Main.playerDatabase.reloadFromFile();
+                DatabaseJournal.playerReleased(player);
 
                 AlertHelper.showAlert("Success", "Player " + playerNameField.getText() + " has been released from " + clubNameField.getText());
                 Main.deletePreviousSceneFromStack();
@@ -1,6 +1,7 @@
 package controller;
 
 import Network.AuctionClient;
+import Network.BidResponse;
 import application.Main;
 import javafx.animation.*;
 import javafx.application.Platform;
@@ -24,6 +25,7 @@ import controller.auctionRelated.*;
 import javafx.util.Duration;
 import model.Club;
 import model.ClubDatabase;
+import model.SaleSettlement;
 import model.Player;
 import model.Session;
 
@@ -63,6 +65,8 @@ public class clubAuctionController implements Initializable {
     @FXML private TextField salaryField;
 
     private AuctionClient client;
+    private final AuctionCountdown countdown = new AuctionCountdown(this::updateTimerUI);
+    private Player shownPlayer;
     private AuctionData auctiondata;
     private Club currentClub;
     private static String currentClubName;
@@ -127,6 +131,7 @@ public class clubAuctionController implements Initializable {
 
     public void updateUIWithAuctionData(AuctionData auctionData) throws IOException {
         if(auctionData.isAuctionEnded()){
+            countdown.stop();
             showPopup("AUCTION ENDED!",300,150);
             if(client!=null) client.disconnect();
             Timeline delay = new Timeline(new KeyFrame(Duration.seconds(2), e -> handleBack()));
@@ -141,23 +146,15 @@ public class clubAuctionController implements Initializable {
 
         updateBidUI(auctionData.getCurrentBid(), auctionData.getCurrentBidder());
         updateTimerUI(auctionData);
+        countdown.follow(auctionData);
         showPlayerDetails(auctionData.getCurrentPlayer());
 
         if (auctionData.isCurrentPlayerSold()) {
             int price = auctionData.getFinalSalePrice();
             String clubName = auctionData.getWinningClubName();
 
-            Player player = Main.playerDatabase.getPlayer(auctionData.getCurrentPlayer().getName());
-            player.setFinalBidPrice(price);
-            player.setSalary(price);
-            Main.playerDatabase.updatePlayerClub(player, clubName);
-            Main.clubDatabase.addPlayerToClub(player, clubName);
-
-/// ////////////////
-            Main.clubDatabase.uploadInfoToFile();
-            Main.playerDatabase.uploadInfoToFile();
-            Main.clubDatabase.reloadFromFile();
-            Main.playerDatabase.reloadFromFile();
+            // the admin's program saves the sale, this only updates our copy (once, however often it is broadcast):
+            SaleSettlement.applyRemote(auctionData.getCurrentPlayer().getName(), clubName, price);
 
             if (!playerSaleProcessed) {
                 if (currentClubName.equalsIgnoreCase(auctionData.getWinningClubName())) {
@@ -194,7 +191,7 @@ public class clubAuctionController implements Initializable {
 
     private void updateTimerUI(AuctionData auctionData) {
         if (timerLabel == null) return;
-        int timeLeft = auctionData.getTimeLeft();
+        int timeLeft = auctionData.getSecondsLeft();
         if(auctionData.isBiddingPaused()){
             timerLabel.setText(timeLeft + "s");
             timerLabel.setStyle("-fx-text-fill: black; -fx-font-weight: bold;");
@@ -225,6 +222,10 @@ public class clubAuctionController implements Initializable {
     }
 
     private void showPlayerDetails(Player player) {
+        // the player of the last message is the same object until it changes, so only a new one is shown:
+        if (player != null && player == shownPlayer) return;
+        shownPlayer = player;
+
         if (player != null) {
             playerNameField.setText(player.getName());
             countryNameField.setText(player.getCountry());
@@ -268,7 +269,7 @@ public class clubAuctionController implements Initializable {
     }
 
     public void handlePlaceBid(ActionEvent actionEvent) {
-        if (auctiondata == null || !auctiondata.isAuctionStarted() || auctiondata.getTimeLeft() < 1) {
+        if (auctiondata == null || !auctiondata.isAuctionStarted() || auctiondata.getSecondsLeft() < 1) {
             showPopup("No auction in progress", 350, 150);
             return;
         }
@@ -311,6 +312,7 @@ public class clubAuctionController implements Initializable {
                     null,
                     0
             );
+            updatedAuctionData.setBidVersion(auctiondata.getBidVersion());      // the bid is made on this state
             client.sendAuctionData(updatedAuctionData);
             System.out.println("Sent the bid to the server: " + newBid);
         } catch (Exception e) {
@@ -322,6 +324,26 @@ public class clubAuctionController implements Initializable {
 
 
 
+    // answer of the server to our last bid (arrives before the broadcast of the new state):
+    public void handleBidResponse(BidResponse response) {
+        if (response.isAccepted()) {
+            updateBidUI(response.getCurrentBid(), response.getCurrentBidder());
+            return;
+        }
+
+        ourLastBid = 0;
+        switch (response.getResult()) {
+            case STALE_VERSION, TOO_LOW -> showPopup("Another club bid first! Current bid: $" +
+                    String.format("%,d", response.getCurrentBid()), 450, 150);
+            case ALREADY_LEADING -> showPopup("already placed bid!", 350, 150);
+            case CLOSED -> showPopup("Bidding is closed for this player", 400, 150);
+            case UNKNOWN_BIDDER -> showPopup("Your club is not registered on the server", 450, 150);
+        }
+    }
+
+
+
+
     // UPDATE BY RAFI:
     private void processPurchase(Player purchased, int price) {
         try {
@@ -330,24 +352,8 @@ public class clubAuctionController implements Initializable {
                 return;
             }
 
-            purchased.setClub(currentClubName);
-            purchased.setFinalBidPrice(price);
-            purchased.setSalary(price);
-//            currentClub.addNewPlayer(purchased);
-            Main.playerDatabase.updatePlayerClub(purchased, currentClubName);
-            Main.clubDatabase.addPlayerToClub(purchased, currentClubName);
-
-            Club club = Main.clubDatabase.getClub(currentClubName);
-            club.setBudget(club.getBudget() - price);
-
-            int newBudget = currentClub.getBudget() - price;
-//            currentClub.setBudget(newBudget);
-            updateBudgetUI(newBudget);
-
-            Main.clubDatabase.uploadInfoToFile();
-            Main.playerDatabase.uploadInfoToFile();
-            Main.clubDatabase.reloadFromFile();
-            Main.playerDatabase.reloadFromFile();
+            // the sale (and the budget) is already applied by updateUIWithAuctionData:
+            updateBudgetUI(currentClub.getBudget());
 
             String str = "Player Purchased!  \n" +
                     purchased.getName()+" sold to "+ currentClubName+"!"+
@@ -379,6 +385,7 @@ public class clubAuctionController implements Initializable {
     }
 
     public void handleBack() {
+        countdown.stop();
         try {
             String userType = Session.getUserType();
             if ("Admin".equalsIgnoreCase(userType)) {
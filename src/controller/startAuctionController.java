@@ -2,6 +2,7 @@ package controller;
 // stop auction korleo timer off hocche na..
 
 import Network.AuctionClient;
+import Network.AuctionCommand;
 import application.Main;
 import javafx.animation.FadeTransition;
 import javafx.animation.KeyFrame;
@@ -21,8 +22,8 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.Duration;
-import model.Club;
 import model.CreateFXML;
+import model.SaleSettlement;
 import controller.auctionRelated.*;
 import model.Player;
 import model.Session;
@@ -80,23 +81,26 @@ public class startAuctionController {
     @FXML
     private Button stopAuctionButton;
 
+    // mirror of the auction state kept by the AuctionEngine on the server (updated from its broadcasts):
     private List<Player> players = new ArrayList<>();
     private int playerCount = 0;
     private boolean isBiddingPaused = false;
-    private boolean isStarted = false, isEnded = false;
-    private int timeLeft, startTime = 12;
+    private boolean isStarted = false;
+    private int timeLeft;
     private String highBidder = "";
     private int currentBid = 0;
     private int ekdomShuru = 0;
+    private int settledIndex = -1;              // last roster index whose sale was saved to the database
+    private final List<Player> soldPlayers = new ArrayList<>();     // players sold in this auction (for its record)
 
-    private Timeline countDown;
-    private static final int auctionTime = 12;
     private long auctionStartTimeMillis;
 
     @FXML
     private Label timerLabel, currentBidLabel, bidLeaderLabel;
 
     private AuctionClient client;
+    private final AuctionCountdown countdown = new AuctionCountdown(this::updateTimerUI);
+    private Player shownPlayer;
 
     @FXML
     public void initialize() {
@@ -106,36 +110,56 @@ public class startAuctionController {
         stopAuctionButton.setDisable(true);
     }
 
-    private void sendDataToClients(AuctionData auctionData) {
+    // the clock, bids and sales are run by the AuctionEngine on the server, the admin only sends commands:
+    private void sendCommand(AuctionCommand command) {
         if (client != null && client.isConnected()) {
-            client.sendAuctionData(auctionData);
+            client.sendCommand(command);
         } else {
             System.err.println("Client not connected ...");
         }
     }
 
     public void updateUIWithAuctionData(AuctionData auctionData) {
-        if (auctionData.getCurrentBid() > currentBid) {
-            currentBid = auctionData.getCurrentBid();
-            highBidder = auctionData.getCurrentBidder();
-
-            sendDataToClients(new AuctionData(
-                    players,
-                    playerCount,
-                    timeLeft,
-                    currentBid,
-                    highBidder,
-                    isBiddingPaused,
-                    isStarted,
-                    isEnded,
-                    players.get(playerCount),
-                    false,
-                    null,
-                    0
-            ));
+        if (auctionData.getPlayers() != null) players = auctionData.getPlayers();
+        playerCount = auctionData.getCurrentIndex();
+        timeLeft = auctionData.getSecondsLeft();
+        currentBid = auctionData.getCurrentBid();
+        highBidder = auctionData.getCurrentBidder() != null ? auctionData.getCurrentBidder() : "";
+        isBiddingPaused = auctionData.isBiddingPaused();
+
+        if (auctionData.isCurrentPlayerSold() && settledIndex != playerCount) {
+            settledIndex = playerCount;
+            saveSale(auctionData.getCurrentPlayer().getName(), auctionData.getWinningClubName(), auctionData.getFinalSalePrice());
         }
+
+        if (auctionData.isAuctionEnded() && isStarted) {            // the engine ran out of players
+            countdown.stop();
+            stopAuction();
+            return;
+        }
+
+        timerLabel.setText("Timer: " + timeLeft);
+        countdown.follow(auctionData);
         currentBidLabel.setText("$" + String.format("%,d", currentBid));
         bidLeaderLabel.setText(highBidder.isEmpty() ? "None" : highBidder);
+        showPlayerDetails(auctionData.getCurrentPlayer());
+    }
+
+    // called by the countdown when the seconds left change between two messages:
+    private void updateTimerUI(AuctionData auctionData) {
+        timeLeft = auctionData.getSecondsLeft();
+        timerLabel.setText("Timer: " + timeLeft);
+    }
+
+    // save a sale settled by the engine to this program's databases (written to disk in the background):
+    private void saveSale(String playerName, String soldToClub, int finalSalePrice) {
+        SaleSettlement.Result result = SaleSettlement.settle(playerName, soldToClub, finalSalePrice);
+        if (result != SaleSettlement.Result.SETTLED && result != SaleSettlement.Result.ALREADY_SETTLED) {
+            System.err.println("Cannot save sale of " + playerName + " to " + soldToClub + ": " + result);
+            return;
+        }
+        Player sold = Main.playerDatabase.getPlayer(playerName);
+        if (sold != null) soldPlayers.add(sold);
     }
 
     @FXML
@@ -149,117 +173,24 @@ public class startAuctionController {
         }
 
         if (players.isEmpty()) {
-//            loadPlayersFromFile("players.txt");
-
             // UPDATE BY RAFI:
             players = Main.playerDatabase.getUnsoldPlayers();
         }
 
-        isStarted = true;
-        isEnded = false;
-        playerCount = 0;
-
         if (!players.isEmpty()) {
-            Player firstPlayer = players.get(0);
-            timeLeft = auctionTime;
-            currentBid = firstPlayer.getBasePrice();
-            highBidder = "";
-
-            showPlayerDetails(firstPlayer);
-            startTimer();
-            sendDataToClients(new AuctionData(players, playerCount, startTime, players.get(0).getBasePrice(), highBidder, isBiddingPaused, isStarted, !isStarted, players.get(0), false, null, 0));
-        }
-    }
-
-    private void startTimer() {
-        if (countDown != null) countDown.stop();
+            isStarted = true;
+            playerCount = 0;
+            settledIndex = -1;
+            soldPlayers.clear();
 
-        timerLabel.setText("Timer: " + timeLeft);
-
-        countDown = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-            if (isBiddingPaused) return;
-            System.out.println("⏱ Time left: " + timeLeft);
-            timeLeft--;
-            if (timeLeft <= 0) {
-                countDown.stop();
-                Player player = players.get(playerCount);
-
-                String soldtoClub = null;
-                int finalSalePrice = player.getBasePrice();
-                boolean isSold = false;
-
-                // UPDATE BY RAFI:
-                if (!highBidder.isEmpty() && currentBid >= player.getBasePrice()) {
-                    soldtoClub = highBidder;
-                    finalSalePrice = currentBid;
-                    player.setClub(soldtoClub);
-                    player.setFinalBidPrice(finalSalePrice);
-                    player.setSalary(finalSalePrice);
-
-                    Club club = Main.clubDatabase.getClub(soldtoClub);
-                    club.setBudget(club.getBudget() - finalSalePrice);
-
-                    Main.playerDatabase.updatePlayerClub(player, soldtoClub);
-                    Main.clubDatabase.addPlayerToClub(player, soldtoClub);
-
-
-                    // risky modification:
-                    Main.playerDatabase.uploadInfoToFile();
-                    Main.clubDatabase.uploadInfoToFile();
-
-                    isSold = true;
-                    System.out.println("SERVER: Player " + player.getName() + " sold to " + soldtoClub + " for $" + String.format("%,d", finalSalePrice));
-                } else {
-                    player.setClub("");
-                    player.setFinalBidPrice(player.getBasePrice());
-                    System.out.println("SERVER: Player " + player.getName() + " unsold (no valid bids or bid below base price).");
-                }
-
-                sendDataToClients(new AuctionData(
-                        players,
-                        playerCount,
-                        0,
-                        finalSalePrice,
-                        player.getClub() != null ? player.getClub() : "",
-                        isBiddingPaused,
-                        isStarted,
-                        isEnded,
-                        player,
-                        isSold,
-                        soldtoClub,
-                        finalSalePrice
-                ));
-
-                highBidder = "";
-                currentBid = 0;
-
-                new Timeline(new KeyFrame(Duration.seconds(2), event -> nextPlayer())).play();
-            } else {
-                timerLabel.setText("Timer: " + timeLeft);
-                sendDataToClients(new AuctionData(
-                        players,
-                        playerCount,
-                        timeLeft,
-                        currentBid > 0 ? currentBid : players.get(playerCount).getBasePrice(),
-                        highBidder,
-                        isBiddingPaused,
-                        isStarted,
-                        isEnded,
-                        players.get(playerCount),
-                        false,
-                        null,
-                        0
-                ));
-            }
-        }));
-        countDown.setCycleCount(Timeline.INDEFINITE);
-        countDown.play();
+            showPlayerDetails(players.get(0));
+            sendCommand(AuctionCommand.start(players));
+        }
     }
 
     public void pauseTimerForSeconds(int seconds) {
-        if (countDown != null) {
-            countDown.pause();
-            isBiddingPaused = true;
+        if (isStarted) {
+            sendCommand(AuctionCommand.of(AuctionCommand.Type.PAUSE));
             Timeline resumeTimer = new Timeline(new KeyFrame(Duration.seconds(seconds), e -> {
                 resumeTimer();
             }));
@@ -269,21 +200,8 @@ public class startAuctionController {
     }
 
     public void resumeTimer() {
-        if (countDown != null) {
-            countDown.play();
-            isBiddingPaused = false;
-            sendDataToClients(new AuctionData(
-                    players,
-                    playerCount,
-                    timeLeft,
-                    currentBid,
-                    highBidder,
-                    isBiddingPaused,
-                    isStarted,
-                    isEnded,
-                    players.get(playerCount),
-                    false, null, 0
-            ));
+        if (isStarted) {
+            sendCommand(AuctionCommand.of(AuctionCommand.Type.RESUME));
         }
     }
 
@@ -293,27 +211,16 @@ public class startAuctionController {
             showPopup("Auction not started yet!", 300, 120);
             return;
         }
-        if (countDown != null) countDown.stop();
         isStarted = false;
-        isEnded = true;
+        sendCommand(AuctionCommand.of(AuctionCommand.Type.STOP));
 
         long auctionEndTimeMillis = System.currentTimeMillis();
         int auctionDuration = (int) ((auctionEndTimeMillis - auctionStartTimeMillis) / 1000);
-        List<Player> soldPlayers = new ArrayList<>();
-        for (Player p : players) {
-            if (p.getClub() != null && !p.getClub().isEmpty()) {
-                soldPlayers.add(p);
-            }
-        }
-
-        AuctionRecord record = new AuctionRecord(soldPlayers.size(), auctionDuration, soldPlayers);
+        // the roster from the server has no clubs, the sales are the ones saved by saveSale:
+        AuctionRecord record = new AuctionRecord(soldPlayers.size(), auctionDuration, new ArrayList<>(soldPlayers));
         AuctionHistoryManager history = new AuctionHistoryManager();
         history.addAuctionRecord(record);
 
-        if (playerCount < players.size()) {
-            sendDataToClients(new AuctionData(players, playerCount, 0, players.get(playerCount).getBasePrice(), highBidder, isBiddingPaused, isStarted, !isStarted, players.get(playerCount), false, null, 0));
-        }
-
         showPopup("AUCTION ENDED!", 250, 100);
         new Timeline(new KeyFrame(Duration.seconds(3), e -> {
             try {
@@ -326,35 +233,11 @@ public class startAuctionController {
 
     @FXML
     public void nextPlayer() {
-        if (countDown != null) countDown.stop();
-
-        playerCount++;
-        currentBid = 0;
-        highBidder = "";
-        isBiddingPaused = false;
-
-        if (playerCount >= players.size()) {
-            stopAuction();
-        } else {
-            Player next = players.get(playerCount);
-            timeLeft = auctionTime;
-            currentBid = next.getBasePrice();
-
-            showPlayerDetails(next);
-            startTimer();
-
-            sendDataToClients(new AuctionData(
-                    players,
-                    playerCount,
-                    timeLeft,
-                    next.getBasePrice(),
-                    "",
-                    isBiddingPaused,
-                    isStarted,
-                    !isStarted,
-                    next, false, null, 0
-            ));
+        if (!isStarted) {
+            showPopup("Auction not started yet!", 300, 120);
+            return;
         }
+        sendCommand(AuctionCommand.of(AuctionCommand.Type.NEXT));
     }
 
     @FXML
@@ -365,15 +248,7 @@ public class startAuctionController {
         }
         startBiddingButton.setDisable(true);
         stopBiddingButton.setDisable(false);
-        isBiddingPaused = false;
-        if (countDown != null) countDown.play();
-        else if (!players.isEmpty()) {
-            showPlayerDetails(players.get(playerCount));
-            startTimer();
-        }
-        if (playerCount < players.size()) {
-            sendDataToClients(new AuctionData(players, playerCount, timeLeft, players.get(playerCount).getBasePrice(), highBidder, isBiddingPaused, isStarted, !isStarted, players.get(playerCount), false, null, 0));
-        }
+        sendCommand(AuctionCommand.of(AuctionCommand.Type.RESUME));
     }
 
     @FXML
@@ -384,14 +259,11 @@ public class startAuctionController {
         }
         startBiddingButton.setDisable(false);
         stopBiddingButton.setDisable(true);
-        isBiddingPaused = true;
-        if (countDown != null) countDown.pause();
-        if (playerCount < players.size()) {
-            sendDataToClients(new AuctionData(players, playerCount, timeLeft, players.get(playerCount).getBasePrice(), highBidder, isBiddingPaused, isStarted, !isStarted, players.get(playerCount), false, null, 0));
-        }
+        sendCommand(AuctionCommand.of(AuctionCommand.Type.PAUSE));
     }
 
     public void backToDash() throws IOException {
+        countdown.stop();
         String userType = Session.getUserType();
         System.out.println("back tiptesi.");
         if (userType.equalsIgnoreCase("Admin")) {
@@ -425,22 +297,7 @@ public class startAuctionController {
         Button yesButton = new Button("Yes, End Auction");
         yesButton.setStyle("-fx-background-color: #d32f2f; -fx-text-fill: white; -fx-font-weight: bold; -fx-font-size: 14px; -fx-padding: 8 15; -fx-background-radius: 5;");
         yesButton.setOnAction(e -> {
-            sendDataToClients(new AuctionData(
-                    players,
-                    playerCount,
-                    timeLeft,
-                    currentBid,
-                    highBidder,
-                    isBiddingPaused,
-                    isStarted,
-                    true,
-                    players.get(playerCount),
-                    false,
-                    null,
-                    0
-            ));
-            if (client != null) client.disconnect();
-            stopAuction();
+            stopAuction();                  // tells the engine to end the auction
             try {
                 backToDash();
             } catch (IOException ex) {
@@ -513,6 +370,10 @@ public class startAuctionController {
 //    }
 
     private void showPlayerDetails(Player player) {
+        // the player of the last message is the same object until it changes, so only a new one is shown:
+        if (player != null && player == shownPlayer) return;
+        shownPlayer = player;
+
         if (player != null) {
             playerNameField.setText(player.getName());
             countryNameField.setText(player.getCountry());
@@ -44,7 +44,10 @@ public class ClubProfileController {
             UserDatabase.deleteUser(Session.getUsername());
 
             // delete from club database and release all players (safely released all players internally)
-            Main.clubDatabase.deleteClub(clubNameField.getText());
+            DatabaseJournal.beginChange();
+            if (Main.clubDatabase.deleteClub(clubNameField.getText())) {
+                DatabaseJournal.clubDeleted(clubNameField.getText());
+            }
             AlertHelper.showAlert("Account Deleted", "Your club account has been successfully deleted.");
             Main.setRoot("LoginPage.fxml");
 
@@ -5,6 +5,7 @@ import javafx.event.ActionEvent;
 import javafx.scene.control.TextField;
 import model.Club;
 import model.CreateFXML;
+import model.DatabaseJournal;
 import model.Session;
 import model.UserDatabase;
 
@@ -54,7 +55,9 @@ public class EditUsernamePageController {
             } else if (usertype.equalsIgnoreCase("club")) {
                 // update the information of the club:
                 Club club = Main.clubDatabase.getClubByUsername(oldUsername);
+                DatabaseJournal.beginChange();
                 club.setUsername(newUsername);
+                DatabaseJournal.clubUsernameChanged(club);
                 Main.setStageTitle("club: " + club.getClubName());
 
                 CreateFXML.createClubProfileFXML(newUsername);
@@ -13,7 +13,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 import javafx.util.Duration;
-import model.Club;
+import model.SaleSettlement;
 import model.Player;
 import model.Session;
 
@@ -46,6 +46,8 @@ public class viewerAuctionController {
     @FXML private Label currentBidLabel;
     @FXML private Label bidLeaderLabel;
     private AuctionClient client;
+    private final AuctionCountdown countdown = new AuctionCountdown(this::updateTimerUI);
+    private Player shownPlayer;
 
     public void initialize() {
         client = new AuctionClient(this);
@@ -58,22 +60,15 @@ public class viewerAuctionController {
         }
 
         // UPDATE BY RAFI:
+        // the admin's program saves the sale, this only updates our copy (once, however often it is broadcast):
         if (auctionData.isCurrentPlayerSold()) {
-            Player player = Main.playerDatabase.getPlayer(auctionData.getCurrentPlayer().getName());
-            player.setClub(auctionData.getWinningClubName());
-            player.setFinalBidPrice(auctionData.getFinalSalePrice());
-
-            Main.playerDatabase.updatePlayerClub(player, auctionData.getWinningClubName());
-            Main.clubDatabase.addPlayerToClub(player, auctionData.getWinningClubName());
-
-            Club club = Main.clubDatabase.getClub(auctionData.getWinningClubName());
-            club.setBudget(club.getBudget() - auctionData.getFinalSalePrice());
-
+            SaleSettlement.applyRemote(auctionData.getCurrentPlayer().getName(), auctionData.getWinningClubName(), auctionData.getFinalSalePrice());
         }
         // *******
 
         updateBidUI(auctionData.getCurrentBid(), auctionData.getCurrentBidder());
         updateTimerUI(auctionData);
+        countdown.follow(auctionData);
         showPlayerDetails(auctionData.getCurrentPlayer());
     }
 
@@ -91,7 +86,7 @@ public class viewerAuctionController {
 
     private void updateTimerUI(AuctionData auctionData) {
         if (timerLabel == null) return;
-        int timeLeft = auctionData.getTimeLeft();
+        int timeLeft = auctionData.getSecondsLeft();
         if (timeLeft > 0) {
             timerLabel.setText(timeLeft + "s");
             timerLabel.setStyle("-fx-text-fill: black; -fx-font-weight: bold;");
@@ -108,6 +103,10 @@ public class viewerAuctionController {
     }
 
     private void showPlayerDetails(Player player) {
+        // the player of the last message is the same object until it changes, so only a new one is shown:
+        if (player != null && player == shownPlayer) return;
+        shownPlayer = player;
+
         if (player != null) {
             playerNameField.setText(player.getName());
             countryNameField.setText(player.getCountry());
@@ -159,6 +158,7 @@ public class viewerAuctionController {
     }
 
     public void handleBack() {
+        countdown.stop();
         String userType = Session.getUserType();
         if (userType.equalsIgnoreCase("Admin")) {
             Main.setRoot("AdminDashboard.fxml");
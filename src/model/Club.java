@@ -3,7 +3,10 @@ package model;
 import application.Main;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 import static model.Player.formatString;
 
@@ -11,6 +14,7 @@ public class Club {
 
     // member variables:
     private String clubName;
+    private int clubCode;                   // NameDictionary code of the club name
     private String shortForm;
     private String managerName;
     private String username;
@@ -25,6 +29,12 @@ public class Club {
 
     List<Player> players;
 
+    // lower-case names of the players, so isPresentPlayer does not scan the list (it runs for every player while loading):
+    private final Set<String> playerKeys = new HashSet<>();
+
+    // database which saves this club (null while the club is not registered):
+    private ClubDatabase database;
+
 
 
     // method to capitalize all characters of the short form of a club:
@@ -51,7 +61,8 @@ public class Club {
 
 
     public Club () {
-        clubName = "";
+        clubName = NameDictionary.canonical("");
+        clubCode = NameDictionary.EMPTY;
         shortForm = "";
         managerName = "";
         username = "";
@@ -70,7 +81,8 @@ public class Club {
 
     // this constructor will be used when a new club is signed:
     public Club (String clubName, String username, String password) {
-        this.clubName = formatString(clubName);
+        this.clubName = NameDictionary.format(clubName);
+        this.clubCode = NameDictionary.code(this.clubName);
         this.username = username;
         this.password = password;
         shortForm = createShortForm(clubName);
@@ -97,6 +109,10 @@ public class Club {
         return clubName;
     }
 
+    int getClubCode() {
+        return clubCode;
+    }
+
     public int getWicketKeeperCount() {
         return wicketKeeperCount;
     }
@@ -146,8 +162,19 @@ public class Club {
     //                   SETTERS                     //
     // ********************************************* //
 
+    // the owning database is notified on changes of the saved fields:
+    void setDatabase(ClubDatabase database) {
+        this.database = database;
+    }
+
+    private void changed() {
+        if (database != null) database.markDirty();
+    }
+
     public void setClubName(String clubName) {
-        this.clubName = formatString(clubName);
+        this.clubName = NameDictionary.format(clubName);
+        this.clubCode = NameDictionary.code(this.clubName);
+        changed();
         for (Player player : players) {
             player.setClub(clubName);
             Main.playerDatabase.updatePlayerClub(player, clubName);
@@ -156,6 +183,7 @@ public class Club {
 
     public void setTrophiesCount(int trophiesCount) {
         this.trophiesCount = trophiesCount;
+        changed();
     }
 
     public void setWicketKeeperCount(int wicketKeeperCount) {
@@ -176,6 +204,7 @@ public class Club {
 
     public void setBudget(int budget) {
         this.budget = budget;
+        changed();
     }
 
     public void setPassword(String password) {
@@ -184,14 +213,17 @@ public class Club {
 
     public void setUsername(String username) {
         this.username = username;
+        changed();
     }
 
     public void setManagerName(String managerName) {
         this.managerName = formatString(managerName);
+        changed();
     }
 
     public void setShortForm(String shortForm) {
         this.shortForm = formatShortForm(shortForm);
+        changed();
     }
 
     public void setPlayers(List<Player> players) {
@@ -205,6 +237,8 @@ public class Club {
         }
 
         this.players = registeredPlayers;
+        playerKeys.clear();
+        for (Player p : registeredPlayers) playerKeys.add(key(p.getName()));
         updatePositionedPlayerCount(this.players);
     }
 
@@ -216,12 +250,17 @@ public class Club {
     // ****************************************************** //
 
     public boolean isPresentPlayer(String playerName) {
-        for (Player p : players) {
-            if (p.getName().equalsIgnoreCase(playerName)) {
-                return true;
-            }
-        }
-        return false;
+        return playerKeys.contains(key(playerName));
+    }
+
+    private static String key(String playerName) {
+        return playerName == null ? "" : playerName.toLowerCase(Locale.ROOT);
+    }
+
+    // called by PlayerDatabase when a player of this club is renamed:
+    void onPlayerRenamed(String oldName, String newName) {
+        playerKeys.remove(key(oldName));
+        playerKeys.add(key(newName));
     }
 
 
@@ -236,6 +275,7 @@ public class Club {
         // check if the player already exists in the club:
         if (!isPresentPlayer(player.getName())) {
             players.add(player);
+            playerKeys.add(key(player.getName()));
 
             // update the club of the player:
             if (Main.playerDatabase != null) {
@@ -243,7 +283,7 @@ public class Club {
             }
 
             // update the position based player count of this club:
-            updatePositionedPlayerCount(player.getPosition());
+            updatePositionedPlayerCount(player.getPositionCode());
             System.out.println("Player " + player.getName() + " added to the club " + clubName);
             return true;
         }
@@ -260,17 +300,18 @@ public class Club {
         if (isPresentPlayer(player.getName())) {
 
             // update the position based player count:
-            String position = player.getPosition();
-            if (position.equalsIgnoreCase("Batsman")) batsmanCount--;
-            else if (position.equalsIgnoreCase("Bowler")) bowlerCount--;
-            else if (position.equalsIgnoreCase("AllRounder")) allRounderCount--;
-            else if (position.equalsIgnoreCase("WicketKeeper")) wicketKeeperCount--;
+            int position = player.getPositionCode();
+            if (position == NameDictionary.BATSMAN) batsmanCount--;
+            else if (position == NameDictionary.BOWLER) bowlerCount--;
+            else if (position == NameDictionary.ALL_ROUNDER) allRounderCount--;
+            else if (position == NameDictionary.WICKET_KEEPER) wicketKeeperCount--;
 
             // update the club name of this player:
             if (Main.playerDatabase != null) Main.playerDatabase.updatePlayerClub(player, "");
 
             // remove this player from the club's player list:
             players.remove(player);
+            playerKeys.remove(key(player.getName()));
             System.out.println("Player " + player.getName() + " removed from the club " + clubName);
 
             return true;
@@ -282,12 +323,11 @@ public class Club {
 
 
     // Update for a single player input:
-    private void updatePositionedPlayerCount(String position) {
-        if (position == null) return;
-        if (position.equalsIgnoreCase("Batsman")) batsmanCount++;
-        else if (position.equalsIgnoreCase("Bowler")) bowlerCount++;
-        else if (position.equalsIgnoreCase("AllRounder")) allRounderCount++;
-        else if (position.equalsIgnoreCase("WicketKeeper")) wicketKeeperCount++;
+    private void updatePositionedPlayerCount(int position) {
+        if (position == NameDictionary.BATSMAN) batsmanCount++;
+        else if (position == NameDictionary.BOWLER) bowlerCount++;
+        else if (position == NameDictionary.ALL_ROUNDER) allRounderCount++;
+        else if (position == NameDictionary.WICKET_KEEPER) wicketKeeperCount++;
     }
 
 
@@ -298,8 +338,7 @@ public class Club {
         allRounderCount = 0;
         wicketKeeperCount = 0;
         for (Player p : players) {
-            String position = p.getPosition();
-            updatePositionedPlayerCount(position);
+            updatePositionedPlayerCount(p.getPositionCode());
         }
     }
 
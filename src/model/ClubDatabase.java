@@ -20,15 +20,33 @@ import application.Main;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ClubDatabase {
     public List<Club> clubs = new ArrayList<>();
 
+    // every change counts up; the database is dirty while the count differs from the one last written to clubs.txt:
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long savedChanges = 0;
 
-    // constructor:
-    public ClubDatabase() throws FileNotFoundException{
-        loadClubs();
+
+    // the clubs register themselves with the database as they are loaded, so it is loaded once it is built:
+    private ClubDatabase() {
+    }
+
+    public static ClubDatabase load() throws FileNotFoundException {
+        ClubDatabase database = new ClubDatabase();
+        database.loadClubs();
+        System.out.println("Club Database Loaded");
+        return database;
+    }
+
+    // from the lines of clubs.txt sent by a storage server:
+    public static ClubDatabase fromLines(List<String> lines) {
+        ClubDatabase database = new ClubDatabase();
+        database.reloadFromLines(lines);
         System.out.println("Club Database Loaded");
+        return database;
     }
 
 
@@ -39,23 +57,10 @@ public class ClubDatabase {
 
     private void loadClubs() throws FileNotFoundException{
         try {
-            BufferedReader br = new BufferedReader(new FileReader("clubs.txt"));
+            BufferedReader br = new BufferedReader(new FileReader(Constants.dataFile("clubs.txt")));
             String line;
             while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length < 6) continue;
-
-                Club club = new Club();
-                club.setUsername(data[0]);
-                club.setClubName(data[1]);
-                club.setShortForm(data[2]);
-                club.setManagerName(data[3]);
-                club.setBudget(Integer.parseInt(data[4]));
-                club.setTrophiesCount(Integer.parseInt(data[5]));
-
-                // players will be added to clubs when the players will be loaded from the player database
-
-                clubs.add(club);
+                loadClub(line);
             }
             br.close();
 
@@ -68,6 +73,49 @@ public class ClubDatabase {
 
 
 
+    private void loadClub(String line) {
+        String[] data = line.split(",");
+        if (data.length < 6) return;
+
+        Club club = new Club();
+        club.setUsername(data[0]);
+        club.setClubName(data[1]);
+        club.setShortForm(data[2]);
+        club.setManagerName(data[3]);
+        club.setBudget(Integer.parseInt(data[4]));
+        club.setTrophiesCount(Integer.parseInt(data[5]));
+
+        // players will be added to clubs when the players will be loaded from the player database
+
+        clubs.add(club);
+        club.setDatabase(this);
+    }
+
+
+
+    // called by Club (and the add/delete methods) after every change:
+    void markDirty() {
+        changes.incrementAndGet();
+        PersistenceScheduler.requestFlush();
+    }
+
+    public boolean isDirty() {
+        return changes.get() != savedChanges;
+    }
+
+    // the changes are already saved by another program (see SaleSettlement.applyRemote):
+    void clearDirty() {
+        savedChanges = changes.get();
+    }
+
+    // number of changes so far (DatabaseJournal compares it with the changes it has journaled):
+    long getChangeCount() {
+        return changes.get();
+    }
+
+
+
+
     //********************************************************
     //               IS PRESENT
     // *******************************************************
@@ -75,8 +123,9 @@ public class ClubDatabase {
 
     // check if a club is registered in the clubs.txt database:
     public boolean isPresentClub(String clubName) {
+        int clubCode = NameDictionary.lookup(clubName);
         for (Club club : clubs) {
-            if (club.getClubName().equalsIgnoreCase(clubName)) {
+            if (club.getClubCode() == clubCode) {
                 return true;
             }
         }
@@ -98,13 +147,16 @@ public class ClubDatabase {
             }
         }
         clubs.add(club);
+        club.setDatabase(this);
+        markDirty();
         return true;
     }
 
 
     public boolean addPlayerToClub(Player player, String clubName) {
+        int clubCode = NameDictionary.lookup(clubName);
         for (Club club : clubs) {
-            if (club.getClubName().equalsIgnoreCase(clubName)) {
+            if (club.getClubCode() == clubCode) {
                 club.addNewPlayer(player);
                 return true;
             }
@@ -119,7 +171,7 @@ public class ClubDatabase {
     // REMOVE A PLAYER FROM A CLUB:
     public boolean removePlayerFromClub(Player player) {
         for (Club club : clubs) {
-            if (player.getClub().equalsIgnoreCase(club.getClubName())) {
+            if (player.getClubCode() == club.getClubCode()) {
                 club.removePlayer(player);
                 return true;
             }
@@ -135,8 +187,9 @@ public class ClubDatabase {
 
 
     public Club getClub(String clubName) {
+        int clubCode = NameDictionary.lookup(clubName);
         for (Club club : clubs) {
-            if (club.getClubName().equalsIgnoreCase(clubName)) {
+            if (club.getClubCode() == clubCode) {
                 return club;
             }
         }
@@ -163,8 +216,9 @@ public class ClubDatabase {
 
     public List<Player> getPlayersOfClub(String clubName) {
         List<Player> players = new ArrayList<>();
+        int clubCode = NameDictionary.lookup(clubName);
         for (Club club : clubs) {
-            if (club.getClubName().equalsIgnoreCase(clubName)) {
+            if (club.getClubCode() == clubCode) {
                 players.addAll(club.getPlayers());
                 break;
             }
@@ -177,8 +231,9 @@ public class ClubDatabase {
 
 
     public boolean deleteClub(String clubName) {
+        int clubCode = NameDictionary.lookup(clubName);
         for (Club club : clubs) {
-            if (club.getClubName().equalsIgnoreCase(clubName)) {
+            if (club.getClubCode() == clubCode) {
                 // release all players of that club:
                 List<Player> playersCopy = new ArrayList<>(club.getPlayers());
                 for (Player player : playersCopy) {
@@ -187,38 +242,61 @@ public class ClubDatabase {
 
                 // finally remove the club:
                 clubs.remove(club);
+                club.setDatabase(null);
+                markDirty();
                 return true;
             }
         }
         return false;
     }
 
-    public synchronized void uploadInfoToFile() {
-        try {
-            BufferedWriter bw = new BufferedWriter(new FileWriter("clubs.txt"));    // writing mode
-            for (Club c : clubs) {
-                bw.write(c.toFileString());
-                bw.newLine();
-            }
-            bw.flush();
-            bw.close();
-            System.out.println("clubs.txt file updated");
-
+    // see PlayerDatabase.uploadInfoToFile
+    public void uploadInfoToFile() throws IOException {
+        DataFile file;
+        synchronized (PersistenceScheduler.getLock()) {
+            file = toDataFile();
+        }
+        PersistenceScheduler.write(file);
+        fileWritten(file);
+    }
 
-        } catch (IOException e) {
-            System.out.println("Error in writing file");
-            e.printStackTrace();
+    // clubs.txt as it is now (the caller holds the PersistenceScheduler lock):
+    DataFile toDataFile() {
+        long taken = changes.get();
+        StringBuilder lines = new StringBuilder();
+        for (Club c : clubs) {
+            lines.append(c.toFileString()).append(System.lineSeparator());
         }
+        return new DataFile("clubs.txt", taken, List.of(lines.toString()));
+    }
+
+    void fileWritten(DataFile file) {
+        savedChanges = Math.max(savedChanges, file.getChanges());
     }
 
 
 
 
     public synchronized void  reloadFromFile() throws FileNotFoundException {
+        for (Club club : clubs) {
+            club.setDatabase(null);
+        }
         clubs.clear();
         loadClubs();
     }
 
+    // same as reloadFromFile, from the lines of clubs.txt sent by a storage server:
+    public synchronized void reloadFromLines(List<String> lines) {
+        for (Club club : clubs) {
+            club.setDatabase(null);
+        }
+        clubs.clear();
+        for (String line : lines) {
+            loadClub(line);
+        }
+        savedChanges = changes.get();
+    }
+
 
 
 
@@ -276,8 +354,9 @@ public class ClubDatabase {
 
             // Find the target club
             Club targetClub = null;
+            int clubCode = NameDictionary.lookup(clubName);
             for (Club club : clubs) {
-                if (club.getClubName().equalsIgnoreCase(clubName)) {
+                if (club.getClubCode() == clubCode) {
                     targetClub = club;
                     break;
                 }
@@ -292,7 +371,7 @@ public class ClubDatabase {
             String currentClub = playerToUpdate.getClub();
             if (currentClub != null && !currentClub.equalsIgnoreCase("None") && !currentClub.trim().isEmpty()) {
                 for (Club club : clubs) {
-                    if (club.getClubName().equalsIgnoreCase(currentClub)) {
+                    if (club.getClubCode() == playerToUpdate.getClubCode()) {
                         club.removePlayer(playerToUpdate);
                         System.out.println("DEBUG: Removed player '" + playerName + "' from previous club '" + currentClub + "'");
                         break;
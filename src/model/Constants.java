@@ -1,5 +1,7 @@
 package model;
 
+import java.io.File;
+
 public class Constants {
     // CLUB RELATED:
     // Club Name
@@ -54,4 +56,20 @@ public class Constants {
     public static final int MAX_PASSWORD_LENGTH = 32;
     public static final int MIN_PASSWORD_LENGTH = 6;
 
+
+
+    // DATA FILES:
+    // The database files are in the working directory, unless the cricmart.dataDir system property
+    // names another directory (the benchmarks use it to run on generated data).
+    public static final String DATA_DIR_PROPERTY = "cricmart.dataDir";
+
+    // With the cricmart.storage system property (the host of an AuctionServer started with "store"), the program
+    // reads and changes the data through that server and never writes the data files itself.
+    public static final String STORAGE_SERVER_PROPERTY = "cricmart.storage";
+
+    public static String dataFile(String fileName) {
+        String dir = System.getProperty(DATA_DIR_PROPERTY);
+        return dir == null || dir.isEmpty() ? fileName : new File(dir, fileName).getPath();
+    }
+
 }
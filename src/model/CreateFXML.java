@@ -2,18 +2,26 @@ package model;
 
 import application.Main;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.StringWriter;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CreateFXML {
 
+    // the generated documents by file name (kept in memory, Main.setRoot loads them from here instead of src/view):
+    private static final Map<String, String> documents = new ConcurrentHashMap<>();
+
+    public static String getDocument(String fxmlFile) {
+        return documents.get(fxmlFile);
+    }
+
+
     public static void createPlayerFXML(Player player) {
         try {
-            String path = "src/view/PlayerCard.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "PlayerCard.fxml";
+            StringWriter writer = new StringWriter();
 
             if (Main.playerDatabase == null) {
                 return;
@@ -263,9 +271,9 @@ public class CreateFXML {
                     </StackPane>
                     """);
 
-            System.out.println("player " + playerName + " fxml file created");
-            writer.close();
-        } catch (IOException e) {
+            System.out.println("player " + playerName + " fxml created");
+            documents.put(name, writer.toString());
+        } catch (Exception e) {
             e.printStackTrace();
             System.out.println("Error creating file");
         }
@@ -276,8 +284,8 @@ public class CreateFXML {
     public static void createClubFXML(Club club) {
         try {
 
-            String path = "src/view/ClubCard.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "ClubCard.fxml";
+            StringWriter writer = new StringWriter();
 
             if (Main.playerDatabase == null) {
                 return;
@@ -464,8 +472,8 @@ public class CreateFXML {
                     """);
 
             System.out.println("Club card created for " + club.getClubName());
-            writer.close();
-        } catch (IOException e) {
+            documents.put(name, writer.toString());
+        } catch (Exception e) {
             e.printStackTrace();
             System.out.println("Error creating club file");
         }
@@ -474,8 +482,8 @@ public class CreateFXML {
 
     public static void createCountryFXML(List<Player> countryPlayers) {
         try {
-            String path = "src/view/CountryCard.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "CountryCard.fxml";
+            StringWriter writer = new StringWriter();
 
             if (Main.playerDatabase == null) {
                 return;
@@ -585,9 +593,9 @@ public class CreateFXML {
                     </StackPane>
                     """);
 
-            System.out.println("country " + countryName + " fxml file created");
-            writer.close();
-        } catch (IOException e) {
+            System.out.println("country " + countryName + " fxml created");
+            documents.put(name, writer.toString());
+        } catch (Exception e) {
             e.printStackTrace();
             System.out.println("Error creating country file");
         }
@@ -596,8 +604,8 @@ public class CreateFXML {
 
     public static void createClubPlayerListFXML(String clubName) {
         try {
-            String path = "src/view/ClubPlayerList.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "ClubPlayerList.fxml";
+            StringWriter writer = new StringWriter();
 
             if (Main.playerDatabase == null) {
                 return;
@@ -707,9 +715,9 @@ public class CreateFXML {
                     </StackPane>
                     """);
 
-            System.out.println("club " + clubName + " player list fxml file created");
-            writer.close();
-        } catch (IOException e) {
+            System.out.println("club " + clubName + " player list fxml created");
+            documents.put(name, writer.toString());
+        } catch (Exception e) {
             e.printStackTrace();
             System.out.println("Error creating club player list file");
         }
@@ -718,8 +726,8 @@ public class CreateFXML {
 
     public static void createPositionPlayerListFXML(List<Player> positionPlayers) {
         try {
-            String path = "src/view/PositionPlayerList.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "PositionPlayerList.fxml";
+            StringWriter writer = new StringWriter();
 
             if (Main.playerDatabase == null) {
                 return;
@@ -831,9 +839,9 @@ public class CreateFXML {
                     </StackPane>
                     """);
 
-            System.out.println("position " + positionName + " fxml file created");
-            writer.close();
-        } catch (IOException e) {
+            System.out.println("position " + positionName + " fxml created");
+            documents.put(name, writer.toString());
+        } catch (Exception e) {
             e.printStackTrace();
             System.out.println("Error creating position file");
         }
@@ -844,8 +852,8 @@ public class CreateFXML {
 
     public static void createSalaryBasedPlayerListFXML(List<Player> salaryPlayers, int startingSalary, int endingSalary) {
         try {
-            String path = "src/view/SalaryBasedPlayerList.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "SalaryBasedPlayerList.fxml";
+            StringWriter writer = new StringWriter();
 
             if (Main.playerDatabase == null) {
                 return;
@@ -960,9 +968,9 @@ public class CreateFXML {
                     </StackPane>
                     """);
 
-            System.out.println("salary range " + startingSalary + " to " + endingSalary + " fxml file created");
-            writer.close();
-        } catch (IOException e) {
+            System.out.println("salary range " + startingSalary + " to " + endingSalary + " fxml created");
+            documents.put(name, writer.toString());
+        } catch (Exception e) {
             e.printStackTrace();
             System.out.println("Error creating position file");
         }
@@ -978,8 +986,8 @@ public class CreateFXML {
 
     public static void createViewerProfileFXML(String username) {
         try {
-            String path = "src/view/ViewerProfile.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "ViewerProfile.fxml";
+            StringWriter writer = new StringWriter();
 
 
             writer.write(STR."""
@@ -1065,7 +1073,7 @@ public class CreateFXML {
 
                     """);
 
-            writer.close();
+            documents.put(name, writer.toString());
             System.out.println("Created Viewer Profile FXML file for " + username);
         } catch (Exception e) {
             System.out.println("Error creating Viewer Profile FXML file for " + username);
@@ -1076,8 +1084,8 @@ public class CreateFXML {
 
     public static void createAdminProfileFXML(String username) {
         try {
-            String path = "src/view/AdminProfile.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "AdminProfile.fxml";
+            StringWriter writer = new StringWriter();
 
 
             writer.write(STR."""
@@ -1186,7 +1194,7 @@ public class CreateFXML {
 
                     """);
 
-            writer.close();
+            documents.put(name, writer.toString());
             System.out.println("Created Admin Profile FXML file for " + username);
         } catch (Exception e) {
             System.out.println("Error creating Admin Profile FXML file for " + username);
@@ -1197,8 +1205,8 @@ public class CreateFXML {
 
     public static void createClubProfileFXML(String username) {
         try {
-            String path = "src/view/ClubProfile.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "ClubProfile.fxml";
+            StringWriter writer = new StringWriter();
 
             Club club = Main.clubDatabase.getClubByUsername(username);
 
@@ -1348,7 +1356,7 @@ public class CreateFXML {
 
                     """);
 
-            writer.close();
+            documents.put(name, writer.toString());
             System.out.println("Created Club Profile FXML file for " + club.getClubName());
         } catch (Exception e) {
             System.out.println("Error creating Club Profile FXML file for " + username);
@@ -1362,8 +1370,8 @@ public class CreateFXML {
     // EDIT USERNAME PAGE FXML CREATION:
     public static void createEditUsernamePageFXML(String username) {
         try {
-            String path = "src/view/EditUsernamePage.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "EditUsernamePage.fxml";
+            StringWriter writer = new StringWriter();
 
 
             writer.write(STR."""
@@ -1447,7 +1455,7 @@ public class CreateFXML {
 
                     """);
 
-            writer.close();
+            documents.put(name, writer.toString());
             System.out.println("Created Edit Username FXML file for " + username);
         } catch (Exception e) {
             System.out.println("Error creating Edit Username FXML file for " + username);
@@ -1459,8 +1467,8 @@ public class CreateFXML {
     // EDIT PASSWORD PAGE FXML CREATION:
     public static void createEditPasswordPageFXML(String username) {
         try {
-            String path = "src/view/EditPasswordPage.fxml";
-            BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+            String name = "EditPasswordPage.fxml";
+            StringWriter writer = new StringWriter();
 
 
             writer.write(STR."""
@@ -1542,7 +1550,7 @@ public class CreateFXML {
                     
                     """);
 
-            writer.close();
+            documents.put(name, writer.toString());
             System.out.println("Created Edit password FXML file for " + username);
         } catch (Exception e) {
             System.out.println("Error creating Edit password FXML file for " + username);
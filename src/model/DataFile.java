@@ -0,0 +1,44 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+// The contents of one data file (players.txt or clubs.txt) as they were at one moment, ready to be written.
+//
+// The database builds it in memory under the PersistenceScheduler lock, which is short (no I/O), and it is
+// written after the lock is released: a sale or any other change never waits for the disk. changes is the
+// database's change count when the contents were taken, which is what the file holds once it is written.
+final class DataFile {
+    private final String fileName;
+    private final long changes;
+    private final List<String> blocks;          // the lines, in blocks of a few thousand
+
+    DataFile(String fileName, long changes, List<String> blocks) {
+        this.fileName = fileName;
+        this.changes = changes;
+        this.blocks = blocks;
+    }
+
+    long getChanges() {
+        return changes;
+    }
+
+    // written to <fileName>.tmp and renamed over the file, so a crash never leaves half a file
+    void write() throws IOException {
+        Path target = Path.of(Constants.dataFile(fileName));
+        Path temp = Path.of(Constants.dataFile(fileName + ".tmp"));
+
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp.toFile()))) {
+            for (String block : blocks) {
+                bw.write(block);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println(fileName + " file updated");
+    }
+}
@@ -0,0 +1,441 @@
+package model;
+
+// Append-only journal of database mutations (journal.txt).
+//
+// Instead of rewriting players.txt and clubs.txt on every change, each mutation is appended
+// to the journal as one small line. A background thread writes the pending lines in batches
+// and fsyncs them once per batch. When the journal grows large, when no record was added for a while,
+// or when the program exits, it is compacted: the dirty snapshot files are rewritten from memory
+// (see PersistenceScheduler) and the journal is truncated. As long as every change is journaled, the
+// scheduler leaves the snapshot files to the compaction (journalsAllChanges).
+//
+// Code which journals its changes calls beginChange() before making them: a change made since the last record
+// (or the last write of the files) which no record covers is then remembered as un-journaled, and the files are
+// rewritten by the next scheduled flush even if more records follow it.
+//
+// On startup the journal is replayed on top of the snapshot files. Every record stores absolute
+// values (not differences), so replaying a record which is already part of the snapshot is harmless.
+//
+// When the data files belong to a storage server (see Network.StorageServer), this program does not
+// write them: the records are handed to the remote sink instead, which sends them to the server, and the
+// server applies and journals them (applyAndJournal).
+//
+// Record format (one per line):
+//      SOLD,<player name>,<club name>,<final bid price>,<salary>
+//      RELEASED,<player name>
+//      BUDGET,<club name>,<budget>
+//      ADDED,<player file string>
+//      UPDATED,<player file string>
+//      REMOVED,<player name>
+//      CLUB,<old club name>,<club file string>
+//      SALE,<player name>,<club name>,<final bid price>,<salary>,<club budget>     (a whole SaleSettlement, in one line)
+//      NEWCLUB,<club file string>
+//      DELETECLUB,<club name>                                                      (its players are released)
+//      USERNAME,<club name>,<username>
+
+
+import application.Main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class DatabaseJournal {
+    private static final String FILE = "journal.txt";
+
+    private static final long FLUSH_INTERVAL_MILLIS = 200;      // pending records are written at most this late
+    private static final int COMPACT_THRESHOLD = 500;           // compact after this many journaled records
+    private static final long IDLE_COMPACT_MILLIS = 30_000;     // compact when no record was added for this long
+
+    // record types:
+    private static final String SOLD = "SOLD";
+    private static final String RELEASED = "RELEASED";
+    private static final String BUDGET = "BUDGET";
+    private static final String ADDED = "ADDED";
+    private static final String UPDATED = "UPDATED";
+    private static final String REMOVED = "REMOVED";
+    private static final String CLUB = "CLUB";
+    private static final String SALE = "SALE";
+    private static final String NEW_CLUB = "NEWCLUB";
+    private static final String DELETE_CLUB = "DELETECLUB";
+    private static final String USERNAME = "USERNAME";
+
+    private static final List<String> pending = new ArrayList<>();     // records waiting for the next batch
+    private static final Object fileLock = new Object();                // guards the journal file
+    private static int recordsSinceCompaction = 0;
+    private static long lastRecordMillis = 0;                           // when the last record was added
+    private static long journaledPlayerChanges = 0;                     // change counts of the databases up to which
+    private static long journaledClubChanges = 0;                       // every change is journaled or written
+    private static boolean unjournaled = false;                         // a change no record covers is not written yet
+    private static long unjournaledPlayerChanges = 0;                   // the change counts when it was found
+    private static long unjournaledClubChanges = 0;
+    private static Thread flusher;
+    private static volatile Consumer<String> remote;                   // set while a storage server owns the files
+
+
+
+
+    // **************************************************** //
+    //                  JOURNAL A MUTATION                  //
+    // **************************************************** //
+
+    public static void playerSold(Player player) {
+        append(SOLD + "," + player.getName() + "," + player.getClub() + "," + player.getFinalBidPrice() + "," + player.getSalary());
+    }
+
+    // the player and the budget of a settled sale, in one record so a crash can not keep half of it:
+    public static void playerSale(Player player, Club club) {
+        append(SALE + "," + player.getName() + "," + club.getClubName() + "," + player.getFinalBidPrice() + "," + player.getSalary() + "," + club.getBudget());
+    }
+
+    public static void playerReleased(Player player) {
+        append(RELEASED + "," + player.getName());
+    }
+
+    public static void clubBudgetChanged(Club club) {
+        append(BUDGET + "," + club.getClubName() + "," + club.getBudget());
+    }
+
+    public static void playerAdded(Player player) {
+        append(player.appendFileString(new StringBuilder(160).append(ADDED).append(',')).toString());
+    }
+
+    public static void playerUpdated(Player player) {
+        append(player.appendFileString(new StringBuilder(160).append(UPDATED).append(',')).toString());
+    }
+
+    public static void playerRemoved(Player player) {
+        append(REMOVED + "," + player.getName());
+    }
+
+    public static void clubUpdated(String oldClubName, Club club) {
+        append(CLUB + "," + oldClubName + "," + club.toFileString());
+    }
+
+
+
+    public static void clubAdded(Club club) {
+        append(NEW_CLUB + "," + club.toFileString());
+    }
+
+    public static void clubDeleted(String clubName) {
+        append(DELETE_CLUB + "," + clubName);
+    }
+
+    public static void clubUsernameChanged(Club club) {
+        append(USERNAME + "," + club.getClubName() + "," + club.getUsername());
+    }
+
+
+
+    // send every record to a storage server instead of the journal file (null: write the journal again):
+    public static void setRemote(Consumer<String> remote) {
+        DatabaseJournal.remote = remote;
+    }
+
+    public static boolean isRemote() {
+        return remote != null;
+    }
+
+    // a record received by the storage server: apply it to the databases and journal it here
+    public static void applyAndJournal(String record) {
+        beginChange();
+        apply(record);
+        append(record);
+    }
+
+
+    // call before the changes of a mutation which is journaled afterwards: any change made since the last
+    // record that no record covers (a change which was not journaled) keeps the files dirty for the scheduler
+    public static void beginChange() {
+        if (remote != null || Main.playerDatabase == null || Main.clubDatabase == null) return;
+
+        synchronized (pending) {
+            long playerChanges = Main.playerDatabase.getChangeCount();
+            long clubChanges = Main.clubDatabase.getChangeCount();
+            if (playerChanges != journaledPlayerChanges || clubChanges != journaledClubChanges) {
+                unjournaled = true;
+                unjournaledPlayerChanges = playerChanges;
+                unjournaledClubChanges = clubChanges;
+            }
+        }
+    }
+
+
+    private static void append(String record) {
+        Consumer<String> sink = remote;
+        if (sink != null) {
+            sink.accept(record);
+            return;
+        }
+
+        synchronized (pending) {
+            pending.add(record);
+            lastRecordMillis = System.currentTimeMillis();
+            // the record is added after its changes, and beginChange() caught any change made before them:
+            if (Main.playerDatabase != null) journaledPlayerChanges = Main.playerDatabase.getChangeCount();
+            if (Main.clubDatabase != null) journaledClubChanges = Main.clubDatabase.getChangeCount();
+            if (flusher == null) {
+                flusher = new Thread(DatabaseJournal::flushLoop, "journal-flusher");
+                flusher.setDaemon(true);
+                flusher.start();
+            }
+        }
+    }
+
+
+
+    // true when the journal holds every change of the databases, so PersistenceScheduler need not rewrite them:
+    static boolean journalsAllChanges() {
+        if (Main.playerDatabase == null || Main.clubDatabase == null) return false;
+        synchronized (pending) {
+            return !unjournaled
+                    && Main.playerDatabase.getChangeCount() == journaledPlayerChanges
+                    && Main.clubDatabase.getChangeCount() == journaledClubChanges;
+        }
+    }
+
+    // called by PersistenceScheduler when the files hold every change up to these counts:
+    static void filesWritten(long playerChanges, long clubChanges) {
+        synchronized (pending) {
+            journaledPlayerChanges = Math.max(journaledPlayerChanges, playerChanges);
+            journaledClubChanges = Math.max(journaledClubChanges, clubChanges);
+            if (unjournaled && playerChanges >= unjournaledPlayerChanges && clubChanges >= unjournaledClubChanges) {
+                unjournaled = false;
+            }
+        }
+    }
+
+
+
+    // background thread: write the pending records once per interval, compact when the journal is large or idle
+    private static void flushLoop() {
+        while (true) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MILLIS);
+                flush();
+
+                long idleMillis;
+                synchronized (pending) {
+                    idleMillis = System.currentTimeMillis() - lastRecordMillis;
+                }
+                if (recordsSinceCompaction >= COMPACT_THRESHOLD
+                        || (recordsSinceCompaction > 0 && idleMillis >= IDLE_COMPACT_MILLIS)) {
+                    compact();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                System.err.println("Error in journal flusher: " + e.getMessage());
+            }
+        }
+    }
+
+
+
+    // write all pending records to the journal with a single fsync:
+    public static void flush() throws IOException {
+        synchronized (fileLock) {
+            List<String> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) return;
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (String record : batch) {
+                sb.append(record).append('\n');
+            }
+
+            try (FileOutputStream out = new FileOutputStream(Constants.dataFile(FILE), true)) {
+                FileChannel channel = out.getChannel();
+                ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            recordsSinceCompaction += batch.size();
+        }
+    }
+
+
+
+    // bring the snapshot files up to date and empty the journal:
+    public static void compact() throws IOException {
+        synchronized (fileLock) {
+            flush();
+
+            // every journaled change marked its database dirty, so writing the dirty files is enough;
+            // if any file could not be written and moved into place, the journal is kept for the next start:
+            try {
+                PersistenceScheduler.flushNow();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("journal.txt kept, the data files could not be written: " + e.getMessage());
+                throw e;
+            }
+
+            // the snapshot now holds every journaled record, so the journal can be truncated:
+            try (FileOutputStream out = new FileOutputStream(Constants.dataFile(FILE))) {
+                out.getChannel().force(false);
+            }
+            recordsSinceCompaction = 0;
+            System.out.println("journal.txt compacted");
+        }
+    }
+
+
+
+
+    // **************************************************** //
+    //                  REPLAY ON STARTUP                   //
+    // **************************************************** //
+
+    // apply the records which were journaled after the last compaction (databases must be loaded):
+    public static void replay() throws IOException {
+        if (!new File(Constants.dataFile(FILE)).exists()) return;
+
+        int count = 0;
+        synchronized (fileLock) {
+            try (BufferedReader br = new BufferedReader(new FileReader(Constants.dataFile(FILE)))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (line.isEmpty()) continue;
+                    try {
+                        apply(line);
+                        count++;
+                    } catch (RuntimeException e) {
+                        System.err.println("Skipping bad journal record: " + line);        // a torn last line after a crash
+                    }
+                }
+            }
+        }
+
+        if (count > 0) {
+            System.out.println("Replayed " + count + " journal records");
+            compact();
+        }
+    }
+
+
+
+    private static void apply(String record) {
+        String[] tokens = record.split(",", 2);
+        String type = tokens[0];
+        String data = tokens[1];
+
+        switch (type) {
+            case SOLD -> applySold(data.split(","));
+            case SALE -> {
+                String[] t = data.split(",");
+                applySold(t);
+                Club club = Main.clubDatabase.getClub(t[1]);
+                if (club != null) club.setBudget(Integer.parseInt(t[4]));
+            }
+            case RELEASED -> {
+                Player player = Main.playerDatabase.getPlayer(data);
+                if (player != null && !player.getClub().isEmpty()) Main.clubDatabase.removePlayerFromClub(player);
+            }
+            case BUDGET -> {
+                String[] t = data.split(",");
+                Club club = Main.clubDatabase.getClub(t[0]);
+                if (club != null) club.setBudget(Integer.parseInt(t[1]));
+            }
+            case ADDED -> {
+                Player player = PlayerDatabase.parsePlayer(data);
+                if (player != null && !Main.playerDatabase.isPresentPlayer(player.getName())) {
+                    Main.playerDatabase.addNewPlayer(player);
+                }
+            }
+            case UPDATED -> {
+                Player updated = PlayerDatabase.parsePlayer(data);
+                Player player = updated == null ? null : Main.playerDatabase.getPlayer(updated.getName());
+                if (player != null) copyDetails(updated, player);
+            }
+            case REMOVED -> {
+                Player player = Main.playerDatabase.getPlayer(data);
+                if (player != null) Main.playerDatabase.removePlayer(player);
+            }
+            case CLUB -> {
+                String[] t = data.split(",");
+                Club club = Main.clubDatabase.getClub(t[0]);
+                if (club == null) return;
+
+                if (!club.getClubName().equalsIgnoreCase(t[2])) club.setClubName(t[2]);
+                club.setShortForm(t[3]);
+                club.setManagerName(t[4]);
+                club.setBudget(Integer.parseInt(t[5]));
+                club.setTrophiesCount(Integer.parseInt(t[6]));
+            }
+            case NEW_CLUB -> {
+                String[] t = data.split(",");
+                if (Main.clubDatabase.isPresentClub(t[1])) return;
+
+                Club club = new Club();
+                club.setUsername(t[0]);
+                club.setClubName(t[1]);
+                club.setShortForm(t[2]);
+                club.setManagerName(t[3]);
+                club.setBudget(Integer.parseInt(t[4]));
+                club.setTrophiesCount(Integer.parseInt(t[5]));
+                Main.clubDatabase.addNewClub(club);
+            }
+            case DELETE_CLUB -> Main.clubDatabase.deleteClub(data);
+            case USERNAME -> {
+                String[] t = data.split(",");
+                Club club = Main.clubDatabase.getClub(t[0]);
+                if (club != null) club.setUsername(t[1]);
+            }
+            default -> throw new IllegalArgumentException("Unknown journal record type " + type);
+        }
+    }
+
+
+
+    private static void applySold(String[] t) {
+        Player player = Main.playerDatabase.getPlayer(t[0]);
+        if (player == null) return;
+
+        if (!player.getClub().equalsIgnoreCase(t[1])) {
+            if (!player.getClub().isEmpty()) Main.clubDatabase.removePlayerFromClub(player);
+            Main.clubDatabase.addPlayerToClub(player, t[1]);
+        }
+        player.setFinalBidPrice(Integer.parseInt(t[2]));
+        player.setSalary(Integer.parseInt(t[3]));
+    }
+
+
+    // copy the fields an admin can edit (everything except name, club and position):
+    private static void copyDetails(Player from, Player to) {
+        if (to.getCountryCode() != from.getCountryCode()) {
+            to.setCountry(from.getCountry());
+            Main.playerDatabase.addNewCountry(to.getCountry());
+        }
+        to.setAge(from.getAge());
+        to.setHeight(from.getHeight());
+        to.setNumber(from.getNumber());
+        to.setSalary(from.getSalary());
+
+        to.setMatchesPlayed(from.getMatchesPlayed());
+        to.setRunsScored(from.getRunsScored());
+        to.setBallsFaced(from.getBallsFaced());
+        to.setFifties(from.getFifties());
+        to.setCenturies(from.getCenturies());
+        to.setHattricks(from.getHattricks());
+        to.setOversBowled(from.getOversBowled());
+        to.setRunsGiven(from.getRunsGiven());
+        to.setWicketsTaken(from.getWicketsTaken());
+
+        to.setBasePrice(from.getBasePrice());
+        to.setFinalBidPrice(from.getFinalBidPrice());
+    }
+}
@@ -0,0 +1,79 @@
+package model;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared table of the few distinct countries, clubs and positions.
+//
+// Every spelling is kept once (all players of India share one "India" string), and every name gets a small int
+// code which is the same for all spellings that differ only in case, so code(a) == code(b) exactly when
+// a.equalsIgnoreCase(b). Players, clubs and the database compare those codes instead of calling equalsIgnoreCase.
+// Codes are only valid in this process (they are never saved or sent).
+//
+// Players are created on several threads (the parallel loader, the server's connection threads), so the maps
+// are concurrent. The table only grows; the number of names is small.
+class NameDictionary {
+    static final int NONE = -1;                 // code of a name which is not in the dictionary (lookup only)
+
+    // spelling -> the shared instance of it:
+    private static final Map<String, String> canonical = new ConcurrentHashMap<>();
+
+    // spelling -> code, and lower-case name -> code:
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> keyCodes = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextCode = new AtomicInteger();
+
+    // unformatted input -> its formatted shared instance, so a known value is not formatted again:
+    private static final Map<String, String> formatted = new ConcurrentHashMap<>();
+    private static final int MAX_FORMATTED = 4096;          // typed input is not remembered forever
+
+    static final int BATSMAN = code("Batsman");
+    static final int BOWLER = code("Bowler");
+    static final int ALL_ROUNDER = code("AllRounder");
+    static final int WICKET_KEEPER = code("WicketKeeper");
+    static final int EMPTY = code("");
+
+
+    private NameDictionary() {
+    }
+
+
+    // Player.formatString(input), as the shared instance:
+    static String format(String input) {
+        if (input == null) return canonical("");
+        String result = formatted.get(input);
+        if (result == null) {
+            result = canonical(Player.formatString(input));
+            if (formatted.size() < MAX_FORMATTED) formatted.put(input, result);
+        }
+        return result;
+    }
+
+    // the shared instance of an (already formatted) name:
+    static String canonical(String name) {
+        if (name == null) name = "";
+        String shared = canonical.putIfAbsent(name, name);
+        return shared == null ? name : shared;
+    }
+
+    // code of a name, added to the dictionary if it is new:
+    static int code(String name) {
+        if (name == null) name = "";
+        Integer code = codes.get(name);
+        if (code != null) return code;
+
+        code = keyCodes.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> nextCode.getAndIncrement());
+        codes.putIfAbsent(name, code);
+        return code;
+    }
+
+    // code of a name used in a search; NONE if no player, club or position has ever had it
+    static int lookup(String name) {
+        if (name == null) return NONE;
+        Integer code = codes.get(name);
+        if (code != null) return code;
+        return keyCodes.getOrDefault(name.toLowerCase(Locale.ROOT), NONE);
+    }
+}
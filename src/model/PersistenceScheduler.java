@@ -0,0 +1,125 @@
+package model;
+
+// Writes players.txt and clubs.txt in the background, only when something changed.
+//
+// PlayerDatabase and ClubDatabase mark themselves dirty whenever one of their players or clubs
+// is modified and then request a flush. The first request schedules a flush COALESCE_MILLIS later;
+// all the changes made until then are written by that single flush. Files that did not change are
+// not rewritten, and nothing is ever read back from disk into the live objects.
+//
+// Changes which are also journaled (see DatabaseJournal) are already on disk in the journal, so the
+// flush is skipped while the journal holds every change; the journal's compaction rewrites the files.
+// A change which was not journaled is always written by the next flush (DatabaseJournal.beginChange).
+//
+// Code which changes the databases on a thread of its own (SaleSettlement, the StorageServer) holds the lock
+// returned by getLock(), and a flush takes the contents of the dirty files under the same lock (see DataFile),
+// so a file is never written from a half made change. The lock is never held for I/O: the files are written
+// after it is released, one flush at a time (writeLock).
+
+
+import application.Main;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PersistenceScheduler {
+    private static final long COALESCE_MILLIS = 2000;
+
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "persistence-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Object lock = new Object();                // changes and the contents of the files
+    private static final Object writeLock = new Object();           // one file write at a time
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private static volatile boolean enabled = true;
+
+
+
+    // background flushes can be switched off (the benchmarks measure the writes themselves);
+    // the databases still track dirtiness and flushNow() still writes:
+    public static void setEnabled(boolean enabled) {
+        PersistenceScheduler.enabled = enabled;
+    }
+
+
+
+    public static Object getLock() {
+        return lock;
+    }
+
+
+
+    // called by the databases after a change:
+    public static void requestFlush() {
+        if (enabled && flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(PersistenceScheduler::scheduledFlush, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    private static void scheduledFlush() {
+        flushScheduled.set(false);          // changes from now on schedule the next flush
+        if (DatabaseJournal.journalsAllChanges()) return;
+
+        try {
+            flushNow();
+        } catch (Exception e) {
+            System.err.println("Error in persistence scheduler: " + e.getMessage());
+            requestFlush();                 // keep the changes dirty and try again later
+        }
+    }
+
+
+
+    // write every dirty database file now (returns the number of files written); a failed write stays dirty
+    public static int flushNow() throws IOException {
+        synchronized (writeLock) {
+            PlayerDatabase playerDatabase = Main.playerDatabase;
+            ClubDatabase clubDatabase = Main.clubDatabase;
+            DataFile players = null;
+            DataFile clubs = null;
+            long playerChanges = 0;
+            long clubChanges = 0;
+
+            // both files as they are at one moment, then written without the lock:
+            synchronized (lock) {
+                if (playerDatabase != null) {
+                    playerChanges = playerDatabase.getChangeCount();
+                    if (playerDatabase.isDirty()) players = playerDatabase.toDataFile();
+                }
+                if (clubDatabase != null) {
+                    clubChanges = clubDatabase.getChangeCount();
+                    if (clubDatabase.isDirty()) clubs = clubDatabase.toDataFile();
+                }
+            }
+
+            int written = 0;
+            if (players != null) {
+                players.write();
+                playerDatabase.fileWritten(players);
+                written++;
+            }
+            if (clubs != null) {
+                clubs.write();
+                clubDatabase.fileWritten(clubs);
+                written++;
+            }
+            // the files now hold every change counted above, journaled or not:
+            if (playerDatabase != null && clubDatabase != null) DatabaseJournal.filesWritten(playerChanges, clubChanges);
+            return written;
+        }
+    }
+
+    // writes a file taken by a database's uploadInfoToFile, never at the same time as a flush
+    static void write(DataFile file) throws IOException {
+        synchronized (writeLock) {
+            file.write();
+        }
+    }
+}
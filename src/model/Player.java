@@ -1,5 +1,7 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 public class Player implements Serializable {
@@ -29,17 +31,31 @@ public class Player implements Serializable {
     private int basePrice;
     private int finalBidPrice;
 
+    // database which keeps this player in its indexes (null while the player is not registered):
+    private transient PlayerDatabase database;
+
+    // row of this player in the database's PlayerStatsStore (-1 while it has none):
+    private transient int statsRow = -1;
+
+    // NameDictionary codes of country, club and position (the strings themselves are the dictionary's shared instances):
+    private transient int countryCode;
+    private transient int clubCode;
+    private transient int positionCode;
+
 
 
 
     // constructor:
     public Player() {
         this.name = "";
-        this.country = "";
+        this.country = NameDictionary.canonical("");
         this.age = 0;
         this.height = 0;
-        this.club = "";
-        this.position = "";
+        this.club = this.country;
+        this.position = this.country;
+        this.countryCode = NameDictionary.EMPTY;
+        this.clubCode = NameDictionary.EMPTY;
+        this.positionCode = NameDictionary.EMPTY;
         this.number = -1;
         this.salary = 0;
 
@@ -64,6 +80,9 @@ public class Player implements Serializable {
         this.height = player.height;
         this.club = player.club;
         this.position = player.position;
+        this.countryCode = player.countryCode;
+        this.clubCode = player.clubCode;
+        this.positionCode = player.positionCode;
         this.number = player.number;
         this.salary = player.salary;
 
@@ -85,32 +104,71 @@ public class Player implements Serializable {
     public Player(String name, String country, int age, double height, String club, String position, int number, int salary) {
         this();
         this.name = formatString(name);
-        this.country = formatString(country);
+        this.country = NameDictionary.format(country);
         this.age = age;
         this.height = height;
-        this.club = formatString(club);
-        this.position = formatString(position);
+        this.club = NameDictionary.format(club);
+        this.position = NameDictionary.format(position);
+        this.countryCode = NameDictionary.code(this.country);
+        this.clubCode = NameDictionary.code(this.club);
+        this.positionCode = NameDictionary.code(this.position);
         this.number = number;
         this.salary = salary;
     }
 
     // String formatting method: "  virat    kohli     " will be converted to "Virat Kohli"
+    // words are separated by whitespace (as split("\\s+")), joined by one space, the first character of every word
+    // is upper case and the result is trimmed. An input which is already formatted is returned as it is.
     public static String formatString (String input) {
         if (input == null) return "";
+        int length = input.length();
+        if (isFormatted(input, length)) return input;
+
+        char[] result = new char[length];           // one space per run of whitespace, so never longer than the input
+        int size = 0;
+        boolean wordStart = true;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (isSeparator(c)) {
+                wordStart = true;
+                continue;
+            }
+            if (wordStart) {
+                if (size > 0) result[size++] = ' ';
+                c = Character.toUpperCase(c);       // first character is upper case, the others remain unchanged
+                wordStart = false;
+            }
+            result[size++] = c;
+        }
 
-        // split the input string by spaces :
-        String[] words = input.split ("\\s+");
-        StringBuilder result = new StringBuilder();         // will store the formatted result string
-
-        for (String w : words) {
-            if (!w.isEmpty()) {
-                result.append(Character.toUpperCase(w.charAt(0)));         // first character is upper case
-                result.append(w.substring(1));                   // the other characters remain unchanged
-                result.append(" ");
+        // trim() also drops control characters at both ends:
+        int from = 0;
+        while (from < size && result[from] <= ' ') from++;
+        while (size > from && result[size - 1] <= ' ') size--;
+        return new String(result, from, size - from);
+    }
+
+    private static boolean isFormatted(String input, int length) {
+        if (length == 0) return true;
+        if (input.charAt(0) <= ' ' || input.charAt(length - 1) <= ' ') return false;
+
+        boolean wordStart = true;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (isSeparator(c)) {
+                if (c != ' ' || wordStart) return false;            // other whitespace, or two in a row
+                wordStart = true;
+            } else {
+                if (wordStart && Character.toUpperCase(c) != c) return false;
+                wordStart = false;
             }
         }
+        return true;
+    }
 
-        return result.toString().trim();
+    // the characters of the regex \s
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
 
@@ -193,6 +251,19 @@ public class Player implements Serializable {
         return finalBidPrice;
     }
 
+    // NameDictionary codes, for comparing without equalsIgnoreCase:
+    int getCountryCode() {
+        return countryCode;
+    }
+
+    int getClubCode() {
+        return clubCode;
+    }
+
+    int getPositionCode() {
+        return positionCode;
+    }
+
 
 
     // calculated stats:
@@ -218,81 +289,166 @@ public class Player implements Serializable {
 
 
 
+    // the owning database is notified on changes so that its indexes stay in sync and the change gets saved:
+    void setDatabase(PlayerDatabase database) {
+        this.database = database;
+    }
+
+    // set the names as they were saved (already formatted) without formatting them again; used by PlayerSnapshot
+    void restoreNames(String name, String country, String club, String position) {
+        this.name = name;
+        this.country = NameDictionary.canonical(country);
+        this.club = NameDictionary.canonical(club);
+        this.position = NameDictionary.canonical(position);
+        this.countryCode = NameDictionary.code(this.country);
+        this.clubCode = NameDictionary.code(this.club);
+        this.positionCode = NameDictionary.code(this.position);
+    }
+
+    // a player received from another process: share its names and give them this process's codes
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        restoreNames(name, country, club, position);
+        statsRow = -1;
+    }
+
+    int getStatsRow() {
+        return statsRow;
+    }
+
+    void setStatsRow(int statsRow) {
+        this.statsRow = statsRow;
+    }
+
+    private void changed() {
+        if (database != null) database.onPlayerChanged(this);
+    }
+
+    private void sortKeyChanged(PlayerSortKey key) {
+        if (database != null) database.onSortKeyChanged(this, key);
+    }
+
+
+
     // setters:
     public void setName(String name) {
+        String oldName = this.name;
         this.name = formatString(name);
+        if (database != null) database.onNameChanged(this, oldName);
+        sortKeyChanged(PlayerSortKey.NAME);
+        changed();
     }
 
     public void setCountry(String country) {
-        this.country = formatString(country);
+        String oldCountry = this.country;
+        this.country = NameDictionary.format(country);
+        this.countryCode = NameDictionary.code(this.country);
+        if (database != null) database.onCountryChanged(this, oldCountry);
+        sortKeyChanged(PlayerSortKey.COUNTRY);
+        changed();
     }
 
     public void setAge(int age) {
         this.age = age;
+        sortKeyChanged(PlayerSortKey.AGE);
+        changed();
     }
 
     public void setHeight(double height) {
         this.height = height;
+        sortKeyChanged(PlayerSortKey.HEIGHT);
+        changed();
     }
 
     public void setClub(String club) {
-        this.club = formatString(club);
+        String oldClub = this.club;
+        this.club = NameDictionary.format(club);
+        this.clubCode = NameDictionary.code(this.club);
+        if (this.club.equals(oldClub)) return;          // also re-set to the same club while loading
+
+        if (database != null) database.onClubChanged(this, oldClub);
+        changed();
     }
 
     public void setPosition(String position) {
-        this.position = formatString(position);
+        this.position = NameDictionary.format(position);
+        this.positionCode = NameDictionary.code(this.position);
+        sortKeyChanged(PlayerSortKey.POSITION);
+        changed();
     }
 
     public void setNumber(int number) {
         this.number = number;
+        changed();
     }
 
     public void setSalary(int salary) {
+        int oldSalary = this.salary;
         this.salary = salary;
+        if (database != null) database.onSalaryChanged(this, oldSalary);
+        sortKeyChanged(PlayerSortKey.SALARY);
+        changed();
     }
 
     public void setMatchesPlayed(int matchesPlayed) {
         this.matchesPlayed = matchesPlayed;
+        sortKeyChanged(PlayerSortKey.MATCHES);
+        changed();
     }
 
     public void setRunsScored(int runsScored) {
         this.runsScored = runsScored;
+        sortKeyChanged(PlayerSortKey.RUNS);
+        changed();
     }
 
     public void setBallsFaced(int ballsFaced) {
         this.ballsFaced = ballsFaced;
+        changed();
     }
 
     public void setFifties(int fifties) {
         this.fifties = fifties;
+        changed();
     }
 
     public void setCenturies(int centuries) {
         this.centuries = centuries;
+        changed();
     }
 
     public void setHattricks(int hattricks) {
         this.hattricks = hattricks;
+        changed();
     }
 
     public void setOversBowled(double oversBowled) {
         this.oversBowled = oversBowled;
+        changed();
     }
 
     public void setRunsGiven(int runsConceded) {
         this.runsConceded = runsConceded;
+        changed();
     }
 
     public void setWicketsTaken(int wicketsTaken) {
         this.wicketsTaken = wicketsTaken;
+        sortKeyChanged(PlayerSortKey.WICKETS);
+        changed();
     }
 
     public void setBasePrice(int basePrice) {
+        int oldBasePrice = this.basePrice;
         this.basePrice = basePrice;
+        if (database != null) database.onBasePriceChanged(this, oldBasePrice);
+        sortKeyChanged(PlayerSortKey.BASE_PRICE);
+        changed();
     }
 
     public void setFinalBidPrice(int finalBidPrice) {
         this.finalBidPrice = finalBidPrice;
+        changed();
     }
 
 
@@ -340,31 +496,16 @@ public class Player implements Serializable {
 
     // print player details to a txt file:
     public String toFileString() {
-        String info = this.getName();
-        info += "," + this.getCountry();
-        info += "," + this.getAge();
-        info += "," + this.getHeight();
-        info += "," + this.getClub();
-        info += "," + this.getPosition();
-        if (this.getNumber() != -1) info += "," + this.getNumber();
-        else info += ",";
-        info += "," + this.getSalary();
-
-        info += "," + this.getMatchesPlayed();
-        info += "," + this.getRunsScored();
-        info += "," + this.getBallsFaced();
-        info += "," + this.getFifties();
-        info += "," + this.getCenturies();
-
-        info += "," + this.getHattricks();
-        info += "," + this.getOversBowled();
-        info += "," + this.getRunsGiven();
-        info += "," + this.getWicketsTaken();
-
-        info += "," + this.getBasePrice();
-        info += "," + this.getFinalBidPrice();
-
-        return info;
+        return appendFileString(new StringBuilder(128)).toString();
+    }
+
+    // the same line appended to a (reused) buffer, without intermediate strings:
+    public StringBuilder appendFileString(StringBuilder sb) {
+        for (PlayerField field : PlayerField.ALL) {
+            if (field != PlayerField.NAME) sb.append(',');
+            field.append(this, sb);
+        }
+        return sb;
     }
 }
 
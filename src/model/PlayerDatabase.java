@@ -28,20 +28,25 @@ import application.Main;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class PlayerDatabase {
+    private static final int WRITE_BLOCK = 1 << 16;         // chars written to players.txt at a time
+
     // List for string player objects:
-    List<Player> players = new ArrayList<>();
+    ArrayList<Player> players = new ArrayList<>();
 
     // List of unsold players:
-    List<Player> unsoldPlayers = new ArrayList<>();
+    ArrayList<Player> unsoldPlayers = new ArrayList<>();
 
     // List for storing clubs:
     List<String> clubs = new ArrayList<>();
@@ -62,117 +67,122 @@ public class PlayerDatabase {
     List<Player> wicketKeepers = new ArrayList<>();
 
 
+    // Hash indexes, all keyed by the lower-case name so lookups stay case-insensitive:
+    // player name -> player
+    private Map<String, Player> playerIndex = new HashMap<>();            // replaced by a presized one on a load
 
+    // names which more than one player has (players.txt can have them): the first of them in the players
+    // list is indexed, and when it is removed or renamed the next one takes its place
+    private final Set<String> duplicateKeys = new HashSet<>();
 
-    public PlayerDatabase() throws IOException {
-        loadPlayers();      // load the player information from the players.txt file
-        System.out.println("Player Database Loaded");
-    }
+    // country name -> players of that country
+    private final Map<String, List<Player>> countryIndex = new HashMap<>();
 
+    // club name -> players of that club ("" holds the unsold players)
+    private final Map<String, List<Player>> clubIndex = new HashMap<>();
 
+    // keys of the clubs and countries lists:
+    private final Set<String> clubKeys = new HashSet<>();
+    private final Set<String> countryKeys = new HashSet<>();
 
-    private void loadPlayers() throws IOException {
-        // ******************************************************** //
-        //      READ PLAYER INFORMATION FROM players.txt FILE       //
-        // ******************************************************** //
+    // the players sorted by every PlayerSortKey (for the player listings):
+    private final SortedPlayerViews sortedViews = new SortedPlayerViews();
 
-        // create a buffered reader object to read the player information from players.txt file:
-        BufferedReader br = new BufferedReader(new FileReader("players.txt"));
+    // salary and base price range indexes:
+    private final PlayerRangeIndex salaryIndex = new PlayerRangeIndex(Player::getSalary);
+    private final PlayerRangeIndex basePriceIndex = new PlayerRangeIndex(Player::getBasePrice);
 
+    // the players' numbers in primitive columns, for rankings and totals:
+    private final PlayerStatsStore statsStore = new PlayerStatsStore();
 
-        // continuously add players to the list from the text file:
-        String line;
-        while(true) {
-            // read a line from the input file:
-            try {
-                line = br.readLine();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+    // every change counts up; the database is dirty while the count differs from the one last written to players.txt:
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long savedChanges = 0;
 
-            if (line == null) {
-                break;
-            }
 
-            // create a Player object:
-            Player newPlayer = new Player();
-            if (newPlayer == null) continue;
 
-            String[] tokens = line.split(",");
-            if (tokens.length < 19) {
-                continue;
-            }
 
-            newPlayer.setName(tokens[0]);
-            newPlayer.setCountry(tokens[1]);
-            newPlayer.setAge(Integer.parseInt(tokens[2]));
-            newPlayer.setHeight(Double.parseDouble(tokens[3]));
-            newPlayer.setClub(tokens[4]);
-            newPlayer.setPosition(tokens[5]);
-            if (!tokens[6].isEmpty()) {
-                newPlayer.setNumber(Integer.parseInt(tokens[6]));
-            } else {
-                newPlayer.setNumber(-1);
-            }
-            newPlayer.setSalary(Integer.parseInt(tokens[7]));
+    // the players register themselves with the database as they are loaded, so it is loaded once it is built:
+    private PlayerDatabase() {
+    }
+
+    public static PlayerDatabase load() throws IOException {
+        PlayerDatabase database = new PlayerDatabase();
+        database.loadPlayers();      // load the player information from the players.txt file
+        System.out.println("Player Database Loaded");
+        return database;
+    }
+
+    // from the lines of players.txt sent by a storage server (the club database must exist):
+    public static PlayerDatabase fromLines(List<String> lines) {
+        PlayerDatabase database = new PlayerDatabase();
+        database.reloadFromLines(lines);
+        System.out.println("Player Database Loaded");
+        return database;
+    }
+
+
+
+    private void loadPlayers() throws IOException {
+        // ******************************************************** //
+        //      READ PLAYER INFORMATION FROM players.txt FILE       //
+        // ******************************************************** //
 
-            // stats:
-            newPlayer.setMatchesPlayed(Integer.parseInt(tokens[8]));
-            newPlayer.setRunsScored(Integer.parseInt(tokens[9]));
-            newPlayer.setBallsFaced(Integer.parseInt(tokens[10]));
-            newPlayer.setFifties(Integer.parseInt(tokens[11]));
-            newPlayer.setCenturies(Integer.parseInt(tokens[12]));
-            newPlayer.setHattricks(Integer.parseInt(tokens[13]));
-            newPlayer.setOversBowled(Double.parseDouble(tokens[14]));
-            newPlayer.setRunsGiven(Integer.parseInt(tokens[15]));
-            newPlayer.setWicketsTaken(Integer.parseInt(tokens[16]));
+        // the binary snapshot of the last clean shutdown, if players.txt has not changed since;
+        // otherwise the file is parsed in parallel chunks (see PlayerFileLoader). Both keep the file order:
+        List<Player> loadedPlayers = PlayerSnapshot.read();
+        if (loadedPlayers == null) {
+            loadedPlayers = PlayerFileLoader.load(Constants.dataFile("players.txt"));
+        }
+        registerLoadedPlayers(loadedPlayers);
+    }
 
-            // auction details:
-            newPlayer.setBasePrice(Integer.parseInt(tokens[17]));
-            newPlayer.setFinalBidPrice(Integer.parseInt(tokens[18]));
 
+    private void registerLoadedPlayers(List<Player> loadedPlayers) {
+        // sized for every loaded player up front, so the list and the name index do not grow in the loop:
+        players.ensureCapacity(loadedPlayers.size());
+        unsoldPlayers.ensureCapacity(loadedPlayers.size());
+        if (playerIndex.isEmpty()) playerIndex = HashMap.newHashMap(loadedPlayers.size());
 
+        int unsoldCount = 0;
+        int skippedCount = 0;
+        Set<String> missingClubs = new LinkedHashSet<>();
 
+        // register the players one by one:
+        for (Player newPlayer : loadedPlayers) {
             // check if player is from a valid/ registered club:
             if (newPlayer.getClub().isEmpty()) {            // no club, means player is unsold
                 players.add(newPlayer);
+                indexPlayer(newPlayer);
                 unsoldPlayers.add(newPlayer);
-                System.out.println("Player " + newPlayer.getName() + " added to unsold players");
+                unsoldCount++;
             }
             else if (Main.clubDatabase != null && Main.clubDatabase.isPresentClub(newPlayer.getClub())) {        // club is present in the club database, so it is a valid/ registered club
                 players.add(newPlayer);
+                indexPlayer(newPlayer);
                 Main.clubDatabase.addPlayerToClub(newPlayer, newPlayer.getClub());
             }
             else {
-                System.out.println("Player " + newPlayer.getName() + " club " +  newPlayer.getClub() + " not found");
+                skippedCount++;
+                missingClubs.add(newPlayer.getClub());
                 continue;       // player's club is not registered, so we can not add this player
             }
 
 
             // now check if we got a new club or not:
-            if (!clubs.contains(newPlayer.getClub())) {
+            if (clubKeys.add(key(newPlayer.getClub()))) {
                 clubs.add(newPlayer.getClub());
             }
 
             // check if we got a new country or not:
-            if (!countries.contains(newPlayer.getCountry())) {
+            if (countryKeys.add(key(newPlayer.getCountry()))) {
                 countries.add(newPlayer.getCountry());
             }
 
 
             // update the position based player lists:
-            if (newPlayer.getPosition().equalsIgnoreCase("Batsman")) {
-                batsmans.add(newPlayer);
-            }
-            else if (newPlayer.getPosition().equalsIgnoreCase("Bowler")) {
-                bowlers.add(newPlayer);
-            }
-            else if (newPlayer.getPosition().equalsIgnoreCase("AllRounder")) {
-                allRounders.add(newPlayer);
-            }
-            else if (newPlayer.getPosition().equalsIgnoreCase("WicketKeeper")) {
-                wicketKeepers.add(newPlayer);
-            }
+            List<Player> positionPlayers = positionList(newPlayer.getPositionCode());
+            if (positionPlayers != null) positionPlayers.add(newPlayer);
 
 
         }
@@ -180,6 +190,42 @@ public class PlayerDatabase {
 
         // ********** PLAYER READING FINISHED ********** //
 
+        System.out.println(unsoldCount + " players added to unsold players");
+        if (skippedCount > 0) {
+            System.out.println(skippedCount + " players skipped, club not found: " + String.join(", ", missingClubs));
+        }
+
+        sortedViews.rebuild(players);           // sorted once here, then kept in order on every change
+        salaryIndex.rebuild(players);
+        basePriceIndex.rebuild(players);
+        statsStore.rebuild(players);
+
+    }
+
+
+
+    // create a Player object from one line of the players.txt file (null if the line is incomplete):
+    static Player parsePlayer(String line) {
+        // create a Player object:
+        Player newPlayer = new Player();
+
+        String[] tokens = line.split(",");
+        if (tokens.length < PlayerField.COUNT) {
+            return null;
+        }
+
+        // the fields in file order (see PlayerField):
+        for (PlayerField field : PlayerField.ALL) {
+            String token = tokens[field.ordinal()];
+            switch (field.kind) {
+                case TEXT -> field.setText(newPlayer, token);
+                case INT -> field.setInt(newPlayer, Integer.parseInt(token));
+                case OPTIONAL_INT -> field.setInt(newPlayer, token.isEmpty() ? PlayerField.NO_VALUE : Integer.parseInt(token));
+                case DOUBLE -> field.setDouble(newPlayer, Double.parseDouble(token));
+            }
+        }
+
+        return newPlayer;
     }
 
 
@@ -189,30 +235,165 @@ public class PlayerDatabase {
     // **************************************************** //
 
     public boolean isPresentClub (String club) {
-        for (String c : clubs) {
-            if (c.equalsIgnoreCase(club)) {
-                return true;
-            }
-        }
-        return false;
+        return clubKeys.contains(key(club));
     }
 
     public boolean isPresentPlayer (String name) {
-        for (Player p : players) {
-            if (p.getName().equalsIgnoreCase(name)) {
-                return true;
-            }
-        }
-        return false;
+        return playerIndex.containsKey(key(name));
     }
 
     public boolean isPresentCountry (String country) {
-        for (String c : countries) {
-            if (c.equalsIgnoreCase(country)) {
-                return true;
+        return countryKeys.contains(key(country));
+    }
+
+
+
+
+    // **************************************************** //
+    //                      INDEXES                         //
+    // **************************************************** //
+
+    // index key of a name: lookups are case-insensitive, so every key is lower-cased
+    private static String key (String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+
+    // add a player to the name, country and club indexes:
+    private void indexPlayer (Player player) {
+        indexName(player);
+        countryIndex.computeIfAbsent(key(player.getCountry()), k -> new ArrayList<>()).add(player);
+        clubIndex.computeIfAbsent(key(player.getClub()), k -> new ArrayList<>()).add(player);
+        player.setDatabase(this);
+    }
+
+
+    // remove a player from all indexes:
+    private void unindexPlayer (Player player) {
+        player.setDatabase(null);
+        unindexName(player, player.getName());
+        removeFromBucket(countryIndex, key(player.getCountry()), player);
+        removeFromBucket(clubIndex, key(player.getClub()), player);
+    }
+
+
+    // the first registered player wins, same as a linear scan
+    private void indexName (Player player) {
+        String key = key(player.getName());
+        if (playerIndex.putIfAbsent(key, player) != null && duplicateKeys.add(key)) {
+            System.out.println("Player name " + player.getName() + " is used by more than one player");
+        }
+    }
+
+    // name is the name the player was indexed under (the player may already have a new one):
+    private void unindexName (Player player, String name) {
+        String key = key(name);
+        if (!playerIndex.remove(key, player) || !duplicateKeys.contains(key)) return;
+
+        // the next player with this name, in list order (only runs for duplicate names):
+        Player next = null;
+        int others = 0;
+        for (Player other : players) {
+            if (other != player && key(other.getName()).equals(key)) {
+                if (next == null) next = other;
+                others++;
             }
         }
-        return false;
+        if (next != null) playerIndex.put(key, next);
+        if (others <= 1) duplicateKeys.remove(key);
+    }
+
+
+    private static void removeFromBucket (Map<String, List<Player>> index, String key, Player player) {
+        List<Player> bucket = index.get(key);
+        if (bucket == null) return;
+
+        bucket.remove(player);
+        if (bucket.isEmpty()) index.remove(key);
+    }
+
+
+    private void clearIndexes () {
+        for (Player player : players) {
+            player.setDatabase(null);           // old objects may still be held by the UI, they must not touch the new indexes
+        }
+        playerIndex.clear();
+        duplicateKeys.clear();
+        countryIndex.clear();
+        clubIndex.clear();
+        clubKeys.clear();
+        countryKeys.clear();
+    }
+
+
+    // called by Player when an indexed field changes:
+    void onNameChanged (Player player, String oldName) {
+        unindexName(player, oldName);
+        indexName(player);
+
+        Club club = Main.clubDatabase == null ? null : Main.clubDatabase.getClub(player.getClub());
+        if (club != null) club.onPlayerRenamed(oldName, player.getName());
+    }
+
+    void onCountryChanged (Player player, String oldCountry) {
+        removeFromBucket(countryIndex, key(oldCountry), player);
+        countryIndex.computeIfAbsent(key(player.getCountry()), k -> new ArrayList<>()).add(player);
+    }
+
+    void onClubChanged (Player player, String oldClub) {
+        removeFromBucket(clubIndex, key(oldClub), player);
+        clubIndex.computeIfAbsent(key(player.getClub()), k -> new ArrayList<>()).add(player);
+    }
+
+
+    void onSalaryChanged (Player player, int oldSalary) {
+        salaryIndex.update(player, oldSalary);
+    }
+
+    void onBasePriceChanged (Player player, int oldBasePrice) {
+        basePriceIndex.update(player, oldBasePrice);
+    }
+
+    // a sold player leaves the unsold list, also when its club was set before the sale was settled (the engine does that):
+    void onPlayerSold (Player player) {
+        if (!player.getClub().isEmpty()) unsoldPlayers.remove(player);
+    }
+
+    void onSortKeyChanged (Player player, PlayerSortKey key) {
+        sortedViews.update(player, key);
+    }
+
+
+    // called by Player after every change:
+    void onPlayerChanged (Player player) {
+        statsStore.update(player);
+        markDirty();
+    }
+
+    // called by the add/remove methods (and onPlayerChanged) after every change:
+    void markDirty () {
+        changes.incrementAndGet();
+        PersistenceScheduler.requestFlush();
+    }
+
+    public boolean isDirty () {
+        return changes.get() != savedChanges;
+    }
+
+    // the changes are already saved by another program (see SaleSettlement.applyRemote):
+    void clearDirty () {
+        savedChanges = changes.get();
+    }
+
+    // number of changes so far (DatabaseJournal compares it with the changes it has journaled):
+    long getChangeCount () {
+        return changes.get();
+    }
+
+
+    // players of a club straight from the index (must not be modified by the caller):
+    private List<Player> clubBucket (String clubName) {
+        return clubIndex.getOrDefault(key(clubName), List.of());
     }
 
 
@@ -224,14 +405,13 @@ public class PlayerDatabase {
     // **************************************************** //
 
     public String searchByPlayerName (String searchName) {
-        for (Player player : players) {
-            if (player.getName().equalsIgnoreCase(searchName)) {
-                System.out.println();
-                System.out.println(player.getName() + " found");
-                player.printPlayer();
-                System.out.println();
-                return player.printPlayer();
-            }
+        Player player = getPlayer(searchName);
+        if (player != null) {
+            System.out.println();
+            System.out.println(player.getName() + " found");
+            player.printPlayer();
+            System.out.println();
+            return player.printPlayer();
         }
 
         System.out.println();
@@ -251,13 +431,11 @@ public class PlayerDatabase {
         if (searchClub.equalsIgnoreCase("Any")) {
             System.out.println();
             System.out.println("Players from country " + searchCountry + " are: ");
-            for (Player player : players) {
-                if (player.getCountry().equalsIgnoreCase(searchCountry)) {
-                    playerCount++;
-                    System.out.println("Player " + playerCount + ": ");
-                    player.printPlayer();
-                    System.out.println();
-                }
+            for (Player player : countryIndex.getOrDefault(key(searchCountry), List.of())) {
+                playerCount++;
+                System.out.println("Player " + playerCount + ": ");
+                player.printPlayer();
+                System.out.println();
             }
             System.out.println("Total players from country " + searchCountry + " are: " + playerCount);
             return;
@@ -271,8 +449,9 @@ public class PlayerDatabase {
 
         System.out.println();
         System.out.println("Players from country " + searchCountry + " in the club " + searchClub + " are: ");
-        for (Player player : players) {
-            if (player.getCountry().equalsIgnoreCase(searchCountry) && player.getClub().equalsIgnoreCase(searchClub)) {
+        int countryCode = NameDictionary.lookup(searchCountry);
+        for (Player player : clubBucket(searchClub)) {
+            if (player.getCountryCode() == countryCode) {
                 playerCount++;
                 System.out.println("Player " + playerCount + ": ");
                 player.printPlayer();
@@ -288,8 +467,9 @@ public class PlayerDatabase {
 
     public void searchByPosition (String searchPosition) {
         List<Player> positionPlayers = new ArrayList<>();
+        int positionCode = NameDictionary.lookup(searchPosition);
         for (Player player : players) {
-            if (player.getPosition().equalsIgnoreCase(searchPosition)) {
+            if (player.getPositionCode() == positionCode) {
                 positionPlayers.add(player);
             }
         }
@@ -317,12 +497,7 @@ public class PlayerDatabase {
 
 
     public void searchBySalaryRange (int startingSalary, int endingSalary) {
-        List<Player> salaryPlayers = new ArrayList<>();
-        for (Player player : players) {
-            if (player.getSalary() >= startingSalary && player.getSalary() <= endingSalary) {
-                salaryPlayers.add(player);
-            }
-        }
+        List<Player> salaryPlayers = getPlayersOfSalaryRange(startingSalary, endingSalary);
 
         if (!salaryPlayers.isEmpty()) {
             int count = 0;
@@ -368,14 +543,7 @@ public class PlayerDatabase {
 
     // return the list of players of a certain club:
     public List<Player> getPlayersOfClub (String clubName) {
-        List<Player> clubPlayers = new ArrayList<>();
-
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(clubName)) {
-                clubPlayers.add(player);
-            }
-        }
-        return clubPlayers;
+        return new ArrayList<>(clubBucket(clubName));
     }
 
 
@@ -383,38 +551,52 @@ public class PlayerDatabase {
 
     // return the list of players of a certain country:
     public List<Player> getPlayersOfCountry (String countryName) {
-        List<Player> countryPlayers = new ArrayList<>();
-        for (Player player : players) {
-            if (player.getCountry().equalsIgnoreCase(countryName)) {
-                countryPlayers.add(player);
-            }
-        }
-        return countryPlayers;
+        return new ArrayList<>(countryIndex.getOrDefault(key(countryName), List.of()));
     }
 
 
     // return the list of players of a certain position:
     public List<Player> getPlayersOfPosition (String positionName) {
-        if (positionName.equalsIgnoreCase("Batsman")) return batsmans;
-        else if (positionName.equalsIgnoreCase("Bowler")) return bowlers;
-        else if (positionName.equalsIgnoreCase("AllRounder")) return allRounders;
-        else if (positionName.equalsIgnoreCase("WicketKeeper")) return wicketKeepers;
-        else {
+        List<Player> positionPlayers = positionList(NameDictionary.lookup(positionName));
+        if (positionPlayers == null) {
             throw new RuntimeException("Position " + positionName + " not found");
         }
+        return positionPlayers;
+    }
+
+    // the position based player list of a position code, null for any other position:
+    private List<Player> positionList(int positionCode) {
+        if (positionCode == NameDictionary.BATSMAN) return batsmans;
+        else if (positionCode == NameDictionary.BOWLER) return bowlers;
+        else if (positionCode == NameDictionary.ALL_ROUNDER) return allRounders;
+        else if (positionCode == NameDictionary.WICKET_KEEPER) return wicketKeepers;
+        return null;
     }
 
 
 
+    // players in a salary range (inclusive), in ascending order of salary:
     public List<Player> getPlayersOfSalaryRange (int startingSalary, int endingSalary) {
-        List<Player> salaryPlayers = new ArrayList<>();
-        for (Player player : players) {
-            if (player.getSalary() >= startingSalary && player.getSalary() <= endingSalary) {
-                salaryPlayers.add(player);
-            }
-        }
+        return salaryIndex.range(startingSalary, endingSalary);
+    }
+
+
+    // players in a base price range (inclusive), in ascending order of base price:
+    public List<Player> getPlayersOfBasePriceRange (int startingPrice, int endingPrice) {
+        return basePriceIndex.range(startingPrice, endingPrice);
+    }
+
+
 
-        return salaryPlayers;
+    // the n best players by a stat, best first (position and country may be null for any):
+    public List<Player> getTopPlayers (PlayerStat stat, int n, String position, String country) {
+        return statsStore.top(stat, n, position, country);
+    }
+
+
+    // total of a stat (runs, wickets, salary...) over the players of a club:
+    public long getClubTotal (PlayerStat stat, String clubName) {
+        return statsStore.clubTotal(stat, clubName);
     }
 
 
@@ -432,11 +614,9 @@ public class PlayerDatabase {
 
         // find the max salary in this club:
         int maxSalary = 0;
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(searchClub)) {
-                if (player.getSalary() > maxSalary) {
-                    maxSalary = player.getSalary();
-                }
+        for (Player player : clubBucket(searchClub)) {
+            if (player.getSalary() > maxSalary) {
+                maxSalary = player.getSalary();
             }
         }
 
@@ -444,8 +624,8 @@ public class PlayerDatabase {
         // print all the players with the max salary in this club:
         System.out.println();
         int count = 0;
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(searchClub) && player.getSalary() == maxSalary) {
+        for (Player player : clubBucket(searchClub)) {
+            if (player.getSalary() == maxSalary) {
                 count++;
                 System.out.println("Player " + count + ": ");
                 player.printPlayer();           // print the player information
@@ -469,11 +649,9 @@ public class PlayerDatabase {
 
         // find the max salary in this club:
         int maxAge = 0;
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(searchClub)) {
-                if (player.getAge() > maxAge) {
-                    maxAge = player.getAge();
-                }
+        for (Player player : clubBucket(searchClub)) {
+            if (player.getAge() > maxAge) {
+                maxAge = player.getAge();
             }
         }
 
@@ -481,8 +659,8 @@ public class PlayerDatabase {
         // print all the players with the max salary in this club:
         System.out.println();
         int count = 0;
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(searchClub) && player.getAge() == maxAge) {
+        for (Player player : clubBucket(searchClub)) {
+            if (player.getAge() == maxAge) {
                 count++;
                 System.out.println("Player " + count + ": ");
                 player.printPlayer();           // print the player information
@@ -507,11 +685,9 @@ public class PlayerDatabase {
 
         // find the max salary in this club:
         double maxHeight = 0;
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(searchClub)) {
-                if (player.getHeight() > maxHeight) {
-                    maxHeight = player.getHeight();
-                }
+        for (Player player : clubBucket(searchClub)) {
+            if (player.getHeight() > maxHeight) {
+                maxHeight = player.getHeight();
             }
         }
 
@@ -519,8 +695,8 @@ public class PlayerDatabase {
         // print all the players with the max salary in this club:
         System.out.println();
         int count = 0;
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(searchClub) && player.getHeight() == maxHeight) {
+        for (Player player : clubBucket(searchClub)) {
+            if (player.getHeight() == maxHeight) {
                 count++;
                 System.out.println("Player " + count + ": ");
                 player.printPlayer();           // print the player information
@@ -542,14 +718,8 @@ public class PlayerDatabase {
             return;
         }
 
-        int totalSalary = 0;
-        int totalPlayers =0;
-        for (Player player : players) {
-            if (player.getClub().equalsIgnoreCase(searchClub)) {
-                totalSalary += player.getSalary();
-                totalPlayers++;
-            }
-        }
+        long totalSalary = statsStore.clubTotal(PlayerStat.SALARY, searchClub);
+        int totalPlayers = clubBucket(searchClub).size();
 
         System.out.println();
         System.out.println("Total salary in Club: " + searchClub + " is " + totalSalary);
@@ -573,28 +743,30 @@ public class PlayerDatabase {
 
         if (newPlayer.getClub().isEmpty()) {
             players.add(newPlayer);
+            indexPlayer(newPlayer);
             unsoldPlayers.add(newPlayer);
         }
         else if (Main.clubDatabase != null && Main.clubDatabase.isPresentClub(newPlayer.getClub())) {
             players.add(newPlayer);
+            indexPlayer(newPlayer);
         }
         else {
             System.out.println("Club " + newPlayer.getClub() + " is not registered");
             return false;
         }
+        sortedViews.add(newPlayer);
+        salaryIndex.add(newPlayer);
+        basePriceIndex.add(newPlayer);
+        statsStore.add(newPlayer);
 
 
         // update the position based player lists:
-        String position = newPlayer.getPosition();
-        if (position.equalsIgnoreCase("Batsman")) batsmans.add(newPlayer);
-        else if (position.equalsIgnoreCase("Bowler")) bowlers.add(newPlayer);
-        else if (position.equalsIgnoreCase("AllRounder")) allRounders.add(newPlayer);
-        else if (position.equalsIgnoreCase("WicketKeeper")) wicketKeepers.add(newPlayer);
+        List<Player> positionPlayers = positionList(newPlayer.getPositionCode());
+        if (positionPlayers != null) positionPlayers.add(newPlayer);
 
 
-        if (!isPresentCountry(newPlayer.getCountry())) {
-            countries.add(newPlayer.getCountry());
-        }
+        addNewCountry(newPlayer.getCountry());
+        markDirty();
 
         System.out.println();
         System.out.println("Player " + newPlayer.getName() + " added");
@@ -611,11 +783,12 @@ public class PlayerDatabase {
         if (isPresentPlayer(player.getName())) {
             if (newClubName.isEmpty() || Main.clubDatabase != null && Main.clubDatabase.isPresentClub(newClubName)) {
                 System.out.println("Player " + player.getName() + "'s club updated from " + player.getClub() + " to " + newClubName);
+                boolean wasUnsold = player.getClub().isEmpty();
                 player.setClub(newClubName);
 
-                // update the unsold player list:
+                // update the unsold player list (only an unsold player can be in it, so a club-to-club move skips the scan):
                 if (newClubName.isEmpty() && !unsoldPlayers.contains(player)) unsoldPlayers.add(player);
-                else unsoldPlayers.remove(player);
+                else if (wasUnsold) unsoldPlayers.remove(player);
 
                 return true;
             } else {
@@ -632,20 +805,24 @@ public class PlayerDatabase {
     public boolean removePlayer (Player player) {
         if (isPresentPlayer(player.getName())) {
             String clubName = player.getClub();
-            String position = player.getPosition();
+            int positionCode = player.getPositionCode();
 
             players.remove(player);
+            unindexPlayer(player);
+            sortedViews.remove(player);
+            salaryIndex.remove(player);
+            basePriceIndex.remove(player);
+            statsStore.remove(player);
 
             // club update:
             if (clubName.isEmpty()) unsoldPlayers.remove(player);
             else if (Main.clubDatabase != null) Main.clubDatabase.removePlayerFromClub (player);       // remove the player from its current club
 
             // position based player list update:
-            if (position.equalsIgnoreCase("Batsman")) batsmans.remove(player);
-            else if (position.equalsIgnoreCase("Bowler")) bowlers.remove(player);
-            else if (position.equalsIgnoreCase("AllRounder")) allRounders.remove(player);
-            else if (position.equalsIgnoreCase("WicketKeeper")) wicketKeepers.remove(player);
+            List<Player> positionPlayers = positionList(positionCode);
+            if (positionPlayers != null) positionPlayers.remove(player);
 
+            markDirty();
             System.out.println("Player " + player.getName() + " removed from database");
             return true;
         }
@@ -658,29 +835,44 @@ public class PlayerDatabase {
     //            UPLOAD PLAYER INFO TO FILE                //
     // **************************************************** //
 
-    // writing mode:
-    public synchronized void uploadInfoToFile() {
-        try {
-            BufferedWriter bw = new BufferedWriter(new FileWriter("players.txt"));
-            for (Player player : players) {
-                bw.write(player.toFileString());
-                bw.newLine();
-            }
-            bw.flush();
-            bw.close();
-            System.out.println("players.txt file updated");
-
-        }
-        catch (IOException e) {
-            throw new RuntimeException(e);
+    // writing mode (see DataFile): the contents are taken under the PersistenceScheduler lock and written
+    // after it; the database stays dirty if the write fails or if something changed since the contents were taken
+    public void uploadInfoToFile() throws IOException {
+        DataFile file;
+        synchronized (PersistenceScheduler.getLock()) {
+            file = toDataFile();
         }
+        PersistenceScheduler.write(file);
+        fileWritten(file);
+    }
 
+    // players.txt as it is now (the caller holds the PersistenceScheduler lock):
+    DataFile toDataFile() {
+        long taken = changes.get();
 
+        // the lines are appended to one buffer and cut in blocks, so a player costs no strings:
+        String lineSeparator = System.lineSeparator();
+        List<String> blocks = new ArrayList<>();
+        StringBuilder lines = new StringBuilder(WRITE_BLOCK + 512);
+        for (Player player : players) {
+            player.appendFileString(lines).append(lineSeparator);
+            if (lines.length() >= WRITE_BLOCK) {
+                blocks.add(lines.toString());
+                lines.setLength(0);
+            }
+        }
+        blocks.add(lines.toString());
+        return new DataFile("players.txt", taken, blocks);
+    }
+
+    void fileWritten(DataFile file) {
+        savedChanges = Math.max(savedChanges, file.getChanges());
     }
 
 
 
     public synchronized void reloadFromFile() throws IOException {
+        clearIndexes();
         players.clear();
         unsoldPlayers.clear();
         clubs.clear();
@@ -693,6 +885,27 @@ public class PlayerDatabase {
         loadPlayers(); // reuse your existing logic
     }
 
+    // same as reloadFromFile, from the lines of players.txt sent by a storage server (reload the clubs first):
+    public synchronized void reloadFromLines(List<String> lines) {
+        clearIndexes();
+        players.clear();
+        unsoldPlayers.clear();
+        clubs.clear();
+        countries.clear();
+        batsmans.clear();
+        bowlers.clear();
+        allRounders.clear();
+        wicketKeepers.clear();
+
+        List<Player> loadedPlayers = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            Player player = parsePlayer(line);
+            if (player != null) loadedPlayers.add(player);
+        }
+        registerLoadedPlayers(loadedPlayers);
+        savedChanges = changes.get();
+    }
+
 
 
     public List<Player> getPlayers() {
@@ -701,11 +914,15 @@ public class PlayerDatabase {
 
 
 
+    // all players sorted by the given field, without sorting (must not be modified by the caller):
+    public List<Player> getSortedPlayers (PlayerSortKey key, boolean descending) {
+        return sortedViews.get(key, descending);
+    }
+
+
+
     public Player getPlayer (String name) {
-        for (Player player : players) {
-            if (player.getName().equalsIgnoreCase(name)) return player;
-        }
-        return null;
+        return playerIndex.get(key(name));
     }
 
 
@@ -717,7 +934,7 @@ public class PlayerDatabase {
 
 
     public boolean addNewCountry (String newCountry) {
-        if (!isPresentCountry(newCountry)) {
+        if (countryKeys.add(key(newCountry))) {
             countries.add(newCountry);
             return true;
         }
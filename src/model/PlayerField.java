@@ -0,0 +1,138 @@
+package model;
+
+// The fields of a player line of players.txt, in file order.
+//
+// This is the only description of the layout: PlayerDatabase.parsePlayer, PlayerFileLoader (the parallel
+// loader), Player.appendFileString and PlayerSnapshot (whose columns are in the same order) all go through it,
+// so a field can not be added or moved in one of them and not in the others.
+enum PlayerField {
+    NAME(Kind.TEXT),
+    COUNTRY(Kind.TEXT),
+    AGE(Kind.INT),
+    HEIGHT(Kind.DOUBLE),
+    CLUB(Kind.TEXT),
+    POSITION(Kind.TEXT),
+    NUMBER(Kind.OPTIONAL_INT),
+    SALARY(Kind.INT),
+
+    // stats:
+    MATCHES_PLAYED(Kind.INT),
+    RUNS_SCORED(Kind.INT),
+    BALLS_FACED(Kind.INT),
+    FIFTIES(Kind.INT),
+    CENTURIES(Kind.INT),
+    HATTRICKS(Kind.INT),
+    OVERS_BOWLED(Kind.DOUBLE),
+    RUNS_GIVEN(Kind.INT),
+    WICKETS_TAKEN(Kind.INT),
+
+    // auction details:
+    BASE_PRICE(Kind.INT),
+    FINAL_BID_PRICE(Kind.INT);
+
+    enum Kind {
+        TEXT,
+        INT,
+        OPTIONAL_INT,           // an empty field is NO_VALUE
+        DOUBLE
+    }
+
+    static final PlayerField[] ALL = values();
+    static final int COUNT = ALL.length;
+    static final int NO_VALUE = -1;
+
+    final Kind kind;
+
+    PlayerField(Kind kind) {
+        this.kind = kind;
+    }
+
+
+
+    String getText(Player player) {
+        return switch (this) {
+            case NAME -> player.getName();
+            case COUNTRY -> player.getCountry();
+            case CLUB -> player.getClub();
+            case POSITION -> player.getPosition();
+            default -> throw new IllegalStateException(this + " is not a text field");
+        };
+    }
+
+    void setText(Player player, String value) {
+        switch (this) {
+            case NAME -> player.setName(value);
+            case COUNTRY -> player.setCountry(value);
+            case CLUB -> player.setClub(value);
+            case POSITION -> player.setPosition(value);
+            default -> throw new IllegalStateException(this + " is not a text field");
+        }
+    }
+
+    int getInt(Player player) {
+        return switch (this) {
+            case AGE -> player.getAge();
+            case NUMBER -> player.getNumber();
+            case SALARY -> player.getSalary();
+            case MATCHES_PLAYED -> player.getMatchesPlayed();
+            case RUNS_SCORED -> player.getRunsScored();
+            case BALLS_FACED -> player.getBallsFaced();
+            case FIFTIES -> player.getFifties();
+            case CENTURIES -> player.getCenturies();
+            case HATTRICKS -> player.getHattricks();
+            case RUNS_GIVEN -> player.getRunsGiven();
+            case WICKETS_TAKEN -> player.getWicketsTaken();
+            case BASE_PRICE -> player.getBasePrice();
+            case FINAL_BID_PRICE -> player.getFinalBidPrice();
+            default -> throw new IllegalStateException(this + " is not an int field");
+        };
+    }
+
+    void setInt(Player player, int value) {
+        switch (this) {
+            case AGE -> player.setAge(value);
+            case NUMBER -> player.setNumber(value);
+            case SALARY -> player.setSalary(value);
+            case MATCHES_PLAYED -> player.setMatchesPlayed(value);
+            case RUNS_SCORED -> player.setRunsScored(value);
+            case BALLS_FACED -> player.setBallsFaced(value);
+            case FIFTIES -> player.setFifties(value);
+            case CENTURIES -> player.setCenturies(value);
+            case HATTRICKS -> player.setHattricks(value);
+            case RUNS_GIVEN -> player.setRunsGiven(value);
+            case WICKETS_TAKEN -> player.setWicketsTaken(value);
+            case BASE_PRICE -> player.setBasePrice(value);
+            case FINAL_BID_PRICE -> player.setFinalBidPrice(value);
+            default -> throw new IllegalStateException(this + " is not an int field");
+        }
+    }
+
+    double getDouble(Player player) {
+        return switch (this) {
+            case HEIGHT -> player.getHeight();
+            case OVERS_BOWLED -> player.getOversBowled();
+            default -> throw new IllegalStateException(this + " is not a double field");
+        };
+    }
+
+    void setDouble(Player player, double value) {
+        switch (this) {
+            case HEIGHT -> player.setHeight(value);
+            case OVERS_BOWLED -> player.setOversBowled(value);
+            default -> throw new IllegalStateException(this + " is not a double field");
+        }
+    }
+
+    // the field as players.txt has it
+    void append(Player player, StringBuilder sb) {
+        switch (kind) {
+            case TEXT -> sb.append(getText(player));
+            case INT -> sb.append(getInt(player));
+            case OPTIONAL_INT -> {
+                int value = getInt(player);
+                if (value != NO_VALUE) sb.append(value);
+            }
+            case DOUBLE -> sb.append(getDouble(player));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Parses players.txt in parallel: the file is memory-mapped, split into chunks which end at a line end,
+// and every chunk is parsed on the common fork-join pool. The lines are tokenized in place (no split(),
+// no substring per number); a Player is created exactly as PlayerDatabase.parsePlayer does it, from the same
+// field table (PlayerField). benchmarks.PlayerParsersCheck compares the two on edge-case lines.
+//
+// The players are returned in file order; registering them in the indexes stays with PlayerDatabase.
+class PlayerFileLoader {
+    private static final int FIELDS = PlayerField.COUNT;
+
+    private static final long MIN_CHUNK = 1 << 20;          // a file smaller than this is parsed on the calling thread
+    private static final long MAX_CHUNK = 64 << 20;         // a chunk is mapped as one buffer
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+
+    static List<Player> load(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            if (chunks.size() <= 1) {
+                return chunks.isEmpty() ? new ArrayList<>() : parseChunk(channel, chunks.get(0));
+            }
+
+            List<List<Player>> parsed;
+            try {
+                parsed = chunks.parallelStream().map(chunk -> {
+                    try {
+                        return parseChunk(channel, chunk);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int total = 0;
+            for (List<Player> players : parsed) total += players.size();
+            List<Player> players = new ArrayList<>(total);
+            for (List<Player> chunkPlayers : parsed) players.addAll(chunkPlayers);
+            return players;
+        }
+    }
+
+
+
+    // **************************************************** //
+    //                      CHUNKS                          //
+    // **************************************************** //
+
+    // {start, end} byte ranges; every range but the last ends just after a '\n'
+    private static List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        if (size == 0) return chunks;
+
+        long chunkCount = Math.min(Math.max(1, size / MIN_CHUNK), ForkJoinPool.getCommonPoolParallelism() * 4L);
+        chunkCount = Math.max(chunkCount, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+        long chunkSize = (size + chunkCount - 1) / chunkCount;
+
+        long start = 0;
+        while (start < size) {
+            long end = lineEnd(channel, Math.min(size, start + chunkSize), size);
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    // position just after the first '\n' at or after position - 1 (or the end of the file)
+    private static long lineEnd(FileChannel channel, long position, long size) throws IOException {
+        if (position >= size) return size;
+
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return offset + i + 1;
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+
+    private static List<Player> parseChunk(FileChannel channel, long[] chunk) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+        List<Player> players = new ArrayList<>();
+
+        byte[] line = new byte[512];
+        int[] fieldStarts = new int[FIELDS];
+        int[] fieldEnds = new int[FIELDS];
+
+        int position = 0;
+        int limit = buffer.limit();
+        while (position < limit) {
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') end++;
+
+            int length = end - position;
+            if (length > line.length) line = new byte[Math.max(length, line.length * 2)];
+            buffer.get(position, line, 0, length);
+            if (length > 0 && line[length - 1] == '\r') length--;
+            position = end + 1;
+
+            Player player = parseLine(line, length, fieldStarts, fieldEnds);
+            if (player != null) players.add(player);
+        }
+        return players;
+    }
+
+
+
+    // **************************************************** //
+    //                      TOKENIZER                       //
+    // **************************************************** //
+
+    // same result as PlayerDatabase.parsePlayer(line), null if the line has less than FIELDS fields
+    private static Player parseLine(byte[] line, int length, int[] starts, int[] ends) {
+        int index = 0;
+        int lastNonEmpty = -1;                  // String.split drops trailing empty fields
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line[i] == ',') {
+                if (index < FIELDS) {
+                    starts[index] = start;
+                    ends[index] = i;
+                }
+                if (i > start) lastNonEmpty = index;
+                index++;
+                start = i + 1;
+            }
+        }
+        if (lastNonEmpty < FIELDS - 1) return null;
+
+        Player newPlayer = new Player();
+        for (PlayerField field : PlayerField.ALL) {
+            int from = starts[field.ordinal()];
+            int to = ends[field.ordinal()];
+            switch (field.kind) {
+                case TEXT -> field.setText(newPlayer, string(line, from, to));
+                case INT -> field.setInt(newPlayer, parseInt(line, from, to));
+                case OPTIONAL_INT -> field.setInt(newPlayer, to > from ? parseInt(line, from, to) : PlayerField.NO_VALUE);
+                case DOUBLE -> field.setDouble(newPlayer, parseDouble(line, from, to));
+            }
+        }
+
+        return newPlayer;
+    }
+
+
+    private static String string(byte[] line, int from, int to) {
+        return new String(line, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    // up to 9 digits with an optional sign; anything else goes to Integer.parseInt (same result or same error)
+    static int parseInt(byte[] line, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (line[i] == '-' || line[i] == '+')) {
+            negative = line[i] == '-';
+            i++;
+        }
+        if (i == to || to - i > 9) return Integer.parseInt(string(line, from, to));
+
+        int value = 0;
+        for (; i < to; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) return Integer.parseInt(string(line, from, to));
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // plain decimals of up to 15 digits ("1.75", "26.2"): digits / 10^decimals is exact in both operands, so the
+    // division rounds to the same double as Double.parseDouble; anything else goes to Double.parseDouble
+    static double parseDouble(byte[] line, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (line[i] == '-' || line[i] == '+')) {
+            negative = line[i] == '-';
+            i++;
+        }
+
+        long digits = 0;
+        int digitCount = 0;
+        int decimals = -1;
+        for (; i < to; i++) {
+            byte b = line[i];
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) return Double.parseDouble(string(line, from, to));
+            digits = digits * 10 + digit;
+            digitCount++;
+            if (decimals >= 0) decimals++;
+        }
+        if (digitCount == 0 || digitCount > 15) return Double.parseDouble(string(line, from, to));
+
+        double value = decimals > 0 ? digits / POWERS_OF_TEN[decimals] : digits;
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,121 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Sorted index of one int field of the players (salary, base price) for range queries in O(log n + k).
+//
+// entries[i] = field value in the upper 32 bits, identity hash of players[i] in the lower 32 bits, so players
+// with the same value are still ordered and a single player is found by a binary search too.
+// The index is built on the first query after the database is loaded, so startup does not pay for it.
+class PlayerRangeIndex {
+    private final ToIntFunction<Player> field;
+    private long[] entries = new long[16];
+    private Player[] players = new Player[16];
+    private int size = 0;
+    private List<Player> unindexed;             // the database's players, until they are indexed on first use
+
+
+    PlayerRangeIndex(ToIntFunction<Player> field) {
+        this.field = field;
+    }
+
+
+    // index all players again on the next query (after loading the database):
+    void rebuild(List<Player> all) {
+        Arrays.fill(players, 0, size, null);
+        size = 0;
+        unindexed = all;
+    }
+
+    private void indexIfNeeded() {
+        if (unindexed == null) return;
+        size = unindexed.size();
+        entries = new long[Math.max(16, size)];
+        players = new Player[entries.length];
+
+        Player[] sorted = unindexed.toArray(new Player[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(player -> entry(field.applyAsInt(player), player)));
+        for (int i = 0; i < size; i++) {
+            entries[i] = entry(field.applyAsInt(sorted[i]), sorted[i]);
+            players[i] = sorted[i];
+        }
+        unindexed = null;
+    }
+
+
+    // (until the first query the changes are already in the players which will be indexed)
+    void add(Player player) {
+        if (unindexed != null) return;
+        long entry = entry(field.applyAsInt(player), player);
+        int index = lowerBound(entry);
+
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+            players = Arrays.copyOf(players, size * 2);
+        }
+        System.arraycopy(entries, index, entries, index + 1, size - index);
+        System.arraycopy(players, index, players, index + 1, size - index);
+        entries[index] = entry;
+        players[index] = player;
+        size++;
+    }
+
+    // value is the field value the player was indexed with
+    boolean remove(Player player, int value) {
+        if (unindexed != null) return false;
+        long entry = entry(value, player);
+        for (int i = lowerBound(entry); i < size && entries[i] == entry; i++) {
+            if (players[i] == player) {
+                System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+                System.arraycopy(players, i + 1, players, i, size - i - 1);
+                players[--size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void remove(Player player) {
+        remove(player, field.applyAsInt(player));
+    }
+
+    // the field of an indexed player changed from oldValue:
+    void update(Player player, int oldValue) {
+        if (remove(player, oldValue)) add(player);
+    }
+
+
+    // players with from <= value <= to, in ascending order of the value:
+    List<Player> range(int from, int to) {
+        indexIfNeeded();
+        if (from > to) return new ArrayList<>();
+
+        int start = lowerBound((long) from << 32);
+        int end = lowerBound(((long) to << 32) | 0xffffffffL);
+        while (end < size && (int) (entries[end] >> 32) == to) end++;        // the identity hash may be 0xffffffff
+
+        return new ArrayList<>(Arrays.asList(players).subList(start, end));
+    }
+
+
+
+    private static long entry(int value, Player player) {
+        return ((long) value << 32) | (System.identityHashCode(player) & 0xffffffffL);
+    }
+
+    // index of the first entry >= entry
+    private int lowerBound(long entry) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid] < entry) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
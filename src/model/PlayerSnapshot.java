@@ -0,0 +1,178 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary copy of players.txt, written on a clean shutdown and memory-mapped on the next start, so startup does
+// not parse text. players.txt stays the source of truth: the snapshot records the length and modification
+// time of the players.txt it was written with, and it is ignored unless players.txt is still that file.
+//
+// Format (big-endian):
+//      int MAGIC, int VERSION, long players.txt length, long players.txt last modified
+//      int string count, then per string: int byte length, UTF-8 bytes      (names, countries, clubs, positions)
+//      int player count n, then one column of n values per field, in players.txt order (see PlayerField):
+//          a string id for a text field, a double for a double field, an int for the others
+public class PlayerSnapshot {
+    private static final String FILE = "players.snapshot";
+    private static final int MAGIC = 0x434D5053;            // "CMPS"
+    private static final int VERSION = 1;
+
+
+    // **************************************************** //
+    //                      WRITE                           //
+    // **************************************************** //
+
+    // call after players.txt has been written (DatabaseJournal.compact), so the snapshot matches it
+    public static void write(List<Player> players) throws IOException {
+        File text = new File(Constants.dataFile("players.txt"));
+        Path target = Path.of(Constants.dataFile(FILE));
+        Path temp = Path.of(Constants.dataFile(FILE + ".tmp"));
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int n = players.size();
+        int[][] stringColumns = new int[PlayerField.COUNT][];
+        for (PlayerField field : PlayerField.ALL) {
+            if (field.kind != PlayerField.Kind.TEXT) continue;
+            int[] column = new int[n];
+            for (int i = 0; i < n; i++) column[i] = id(field.getText(players.get(i)), ids, strings);
+            stringColumns[field.ordinal()] = column;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile()), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(text.length());
+            out.writeLong(text.lastModified());
+
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(n);
+            for (PlayerField field : PlayerField.ALL) {
+                switch (field.kind) {
+                    case TEXT -> {
+                        for (int id : stringColumns[field.ordinal()]) out.writeInt(id);
+                    }
+                    case INT, OPTIONAL_INT -> {
+                        for (Player player : players) out.writeInt(field.getInt(player));
+                    }
+                    case DOUBLE -> {
+                        for (Player player : players) out.writeDouble(field.getDouble(player));
+                    }
+                }
+            }
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println(FILE + " written (" + n + " players)");
+    }
+
+    private static int id(String string, Map<String, Integer> ids, List<String> strings) {
+        Integer id = ids.get(string);
+        if (id == null) {
+            id = strings.size();
+            ids.put(string, id);
+            strings.add(string);
+        }
+        return id;
+    }
+
+
+
+    // **************************************************** //
+    //                      READ                            //
+    // **************************************************** //
+
+    // the players of the snapshot, or null if there is no snapshot for the current players.txt
+    static List<Player> read() {
+        File text = new File(Constants.dataFile("players.txt"));
+        Path file = Path.of(Constants.dataFile(FILE));
+        if (!Files.exists(file) || !text.exists()) return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            if (buffer.getLong() != text.length() || buffer.getLong() != text.lastModified()) {
+                System.out.println(FILE + " is older than players.txt, reading players.txt");
+                return null;
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt();
+                if (length > bytes.length) bytes = new byte[Math.max(length, bytes.length * 2)];
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            int n = buffer.getInt();
+            IntBuffer[] intColumns = new IntBuffer[PlayerField.COUNT];          // also the string ids
+            DoubleBuffer[] doubleColumns = new DoubleBuffer[PlayerField.COUNT];
+            for (PlayerField field : PlayerField.ALL) {
+                if (field.kind == PlayerField.Kind.DOUBLE) doubleColumns[field.ordinal()] = doubleColumn(buffer, n);
+                else intColumns[field.ordinal()] = intColumn(buffer, n);
+            }
+            IntBuffer names = intColumns[PlayerField.NAME.ordinal()];
+            IntBuffer countries = intColumns[PlayerField.COUNTRY.ordinal()];
+            IntBuffer clubs = intColumns[PlayerField.CLUB.ordinal()];
+            IntBuffer positions = intColumns[PlayerField.POSITION.ordinal()];
+
+            List<Player> players = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Player player = new Player();
+                player.restoreNames(strings[names.get(i)], strings[countries.get(i)], strings[clubs.get(i)], strings[positions.get(i)]);
+                for (PlayerField field : PlayerField.ALL) {
+                    switch (field.kind) {
+                        case TEXT -> { }                // restored above
+                        case INT, OPTIONAL_INT -> field.setInt(player, intColumns[field.ordinal()].get(i));
+                        case DOUBLE -> field.setDouble(player, doubleColumns[field.ordinal()].get(i));
+                    }
+                }
+                players.add(player);
+            }
+
+            System.out.println(n + " players read from " + FILE);
+            return players;
+
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read " + FILE + ", reading players.txt: " + e);     // a damaged snapshot is never fatal
+            return null;
+        }
+    }
+
+    private static IntBuffer intColumn(ByteBuffer buffer, int n) {
+        IntBuffer column = buffer.slice(buffer.position(), n * Integer.BYTES).asIntBuffer();
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        return column;
+    }
+
+    private static DoubleBuffer doubleColumn(ByteBuffer buffer, int n) {
+        DoubleBuffer column = buffer.slice(buffer.position(), n * Double.BYTES).asDoubleBuffer();
+        buffer.position(buffer.position() + n * Double.BYTES);
+        return column;
+    }
+}
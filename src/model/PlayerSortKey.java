@@ -0,0 +1,41 @@
+package model;
+
+import java.util.Comparator;
+
+// The fields a player listing can be sorted by (the labels are the ones shown in the "Sort By" choice boxes)
+public enum PlayerSortKey {
+    NAME("Name", Comparator.comparing(Player::getName, String.CASE_INSENSITIVE_ORDER)),
+    AGE("Age", Comparator.comparingInt(Player::getAge)),
+    SALARY("Salary", Comparator.comparingInt(Player::getSalary)),
+    MATCHES("Matches", Comparator.comparingInt(Player::getMatchesPlayed)),
+    RUNS("Runs", Comparator.comparingInt(Player::getRunsScored)),
+    WICKETS("Wickets", Comparator.comparingInt(Player::getWicketsTaken)),
+    HEIGHT("Height", Comparator.comparingDouble(Player::getHeight)),
+    COUNTRY("Country", Comparator.comparing(Player::getCountry, String.CASE_INSENSITIVE_ORDER)),
+    POSITION("Position", Comparator.comparing(Player::getPosition, String.CASE_INSENSITIVE_ORDER)),
+    BASE_PRICE("Base Price", Comparator.comparingInt(Player::getBasePrice));
+
+    private final String label;
+    private final Comparator<Player> comparator;
+
+    PlayerSortKey(String label, Comparator<Player> comparator) {
+        this.label = label;
+        this.comparator = comparator;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Comparator<Player> getComparator() {
+        return comparator;
+    }
+
+    // the key of a choice box label (NAME for an unknown label):
+    public static PlayerSortKey fromLabel(String label) {
+        for (PlayerSortKey key : values()) {
+            if (key.label.equalsIgnoreCase(label)) return key;
+        }
+        return NAME;
+    }
+}
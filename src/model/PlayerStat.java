@@ -0,0 +1,32 @@
+package model;
+
+// Player statistics which can be ranked or totalled over the columnar PlayerStatsStore
+public enum PlayerStat {
+    MATCHES(false, false),
+    RUNS(false, false),
+    WICKETS(false, false),
+    SALARY(false, false),
+    BASE_PRICE(false, false),
+    BATTING_AVERAGE(true, false),
+    STRIKE_RATE(true, false),
+    BOWLING_AVERAGE(true, true),
+    ECONOMY_RATE(true, true);
+
+    private final boolean derived;
+    private final boolean lowerIsBetter;
+
+    PlayerStat(boolean derived, boolean lowerIsBetter) {
+        this.derived = derived;
+        this.lowerIsBetter = lowerIsBetter;
+    }
+
+    // calculated from other stats (an average or a rate), so it can be ranked but not totalled
+    public boolean isDerived() {
+        return derived;
+    }
+
+    // the best players have the lowest value (bowling average, economy rate)
+    public boolean isLowerBetter() {
+        return lowerIsBetter;
+    }
+}
@@ -0,0 +1,217 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Columnar copy of the players' numbers: one primitive array per field, one row per player.
+//
+// Rows are dense (0 .. size-1): a removed player's row is filled with the last row. Country, position and
+// club are stored as their NameDictionary codes, so a ranking like "top 10 strike rate among bowlers from India" or a club
+// total is one pass over a few int arrays instead of a walk over Player objects. The averages and rates
+// are calculated from the columns while scanning, the same way Player calculates them.
+class PlayerStatsStore {
+    private Player[] players = new Player[16];
+    private int size = 0;
+
+    private int[] age = new int[16];
+    private double[] height = new double[16];
+    private int[] salary = new int[16];
+    private int[] matchesPlayed = new int[16];
+    private int[] runsScored = new int[16];
+    private int[] ballsFaced = new int[16];
+    private int[] fifties = new int[16];
+    private int[] centuries = new int[16];
+    private int[] hattricks = new int[16];
+    private double[] oversBowled = new double[16];
+    private int[] runsConceded = new int[16];
+    private int[] wicketsTaken = new int[16];
+    private int[] basePrice = new int[16];
+    private int[] finalBidPrice = new int[16];
+
+    private int[] country = new int[16];
+    private int[] position = new int[16];
+    private int[] club = new int[16];
+
+
+
+    // **************************************************** //
+    //                      ROWS                            //
+    // **************************************************** //
+
+    void rebuild(List<Player> all) {
+        for (int row = 0; row < size; row++) players[row].setStatsRow(-1);
+        Arrays.fill(players, 0, size, null);
+        size = 0;
+        ensureCapacity(all.size());
+        for (Player player : all) add(player);
+    }
+
+    void add(Player player) {
+        ensureCapacity(size + 1);
+        players[size] = player;
+        player.setStatsRow(size);
+        write(size, player);
+        size++;
+    }
+
+    void remove(Player player) {
+        int row = player.getStatsRow();
+        if (row < 0 || row >= size || players[row] != player) return;
+
+        int last = size - 1;
+        if (row != last) {                              // the last row fills the gap
+            players[row] = players[last];
+            players[row].setStatsRow(row);
+            write(row, players[row]);
+        }
+        players[last] = null;
+        size--;
+        player.setStatsRow(-1);
+    }
+
+    // copy the player's current values into its row:
+    void update(Player player) {
+        int row = player.getStatsRow();
+        if (row >= 0 && row < size && players[row] == player) write(row, player);
+    }
+
+    int size() {
+        return size;
+    }
+
+
+    private void write(int row, Player player) {
+        age[row] = player.getAge();
+        height[row] = player.getHeight();
+        salary[row] = player.getSalary();
+        matchesPlayed[row] = player.getMatchesPlayed();
+        runsScored[row] = player.getRunsScored();
+        ballsFaced[row] = player.getBallsFaced();
+        fifties[row] = player.getFifties();
+        centuries[row] = player.getCenturies();
+        hattricks[row] = player.getHattricks();
+        oversBowled[row] = player.getOversBowled();
+        runsConceded[row] = player.getRunsGiven();
+        wicketsTaken[row] = player.getWicketsTaken();
+        basePrice[row] = player.getBasePrice();
+        finalBidPrice[row] = player.getFinalBidPrice();
+
+        country[row] = player.getCountryCode();
+        position[row] = player.getPositionCode();
+        club[row] = player.getClubCode();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= players.length) return;
+        int length = Math.max(capacity, players.length * 2);
+
+        players = Arrays.copyOf(players, length);
+        age = Arrays.copyOf(age, length);
+        height = Arrays.copyOf(height, length);
+        salary = Arrays.copyOf(salary, length);
+        matchesPlayed = Arrays.copyOf(matchesPlayed, length);
+        runsScored = Arrays.copyOf(runsScored, length);
+        ballsFaced = Arrays.copyOf(ballsFaced, length);
+        fifties = Arrays.copyOf(fifties, length);
+        centuries = Arrays.copyOf(centuries, length);
+        hattricks = Arrays.copyOf(hattricks, length);
+        oversBowled = Arrays.copyOf(oversBowled, length);
+        runsConceded = Arrays.copyOf(runsConceded, length);
+        wicketsTaken = Arrays.copyOf(wicketsTaken, length);
+        basePrice = Arrays.copyOf(basePrice, length);
+        finalBidPrice = Arrays.copyOf(finalBidPrice, length);
+        country = Arrays.copyOf(country, length);
+        position = Arrays.copyOf(position, length);
+        club = Arrays.copyOf(club, length);
+    }
+
+    // code of a name used in a query: -1 for "any" (null), -2 if no player has it
+    private static int queryCode(String name) {
+        if (name == null) return -1;
+        int code = NameDictionary.lookup(name);
+        return code == NameDictionary.NONE ? -2 : code;
+    }
+
+
+
+
+    // **************************************************** //
+    //                      QUERIES                         //
+    // **************************************************** //
+
+    // the n best players by a stat, best first; position and country may be null for any.
+    // players without the stat (no balls faced for the strike rate, no wickets for the bowling average...) are skipped
+    List<Player> top(PlayerStat stat, int n, String positionName, String countryName) {
+        int positionCode = queryCode(positionName);
+        int countryCode = queryCode(countryName);
+        if (n <= 0 || positionCode == -2 || countryCode == -2) return new ArrayList<>();
+
+        // the best rows so far, best first:
+        int[] bestRows = new int[n];
+        double[] bestValues = new double[n];
+        int found = 0;
+        double sign = stat.isLowerBetter() ? -1 : 1;          // compare sign * value, higher is better
+
+        for (int row = 0; row < size; row++) {
+            if (positionCode >= 0 && position[row] != positionCode) continue;
+            if (countryCode >= 0 && country[row] != countryCode) continue;
+            if (!hasStat(stat, row)) continue;
+
+            double value = sign * value(stat, row);
+            if (found == n && value <= bestValues[n - 1]) continue;
+
+            int index = found < n ? found++ : n - 1;
+            while (index > 0 && bestValues[index - 1] < value) {
+                bestValues[index] = bestValues[index - 1];
+                bestRows[index] = bestRows[index - 1];
+                index--;
+            }
+            bestValues[index] = value;
+            bestRows[index] = row;
+        }
+
+        List<Player> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) result.add(players[bestRows[i]]);
+        return result;
+    }
+
+
+    // sum of a (not derived) stat over the players of a club
+    long clubTotal(PlayerStat stat, String clubName) {
+        if (stat.isDerived()) throw new IllegalArgumentException(stat + " can not be totalled");
+        int clubCode = queryCode(clubName == null ? "" : clubName);
+        if (clubCode < 0) return 0;
+
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            if (club[row] == clubCode) total += (long) value(stat, row);
+        }
+        return total;
+    }
+
+
+    private double value(PlayerStat stat, int row) {
+        return switch (stat) {
+            case MATCHES -> matchesPlayed[row];
+            case RUNS -> runsScored[row];
+            case WICKETS -> wicketsTaken[row];
+            case SALARY -> salary[row];
+            case BASE_PRICE -> basePrice[row];
+            case BATTING_AVERAGE -> (double) runsScored[row] / matchesPlayed[row];
+            case STRIKE_RATE -> (double) runsScored[row] * 100 / ballsFaced[row];
+            case BOWLING_AVERAGE -> (double) runsConceded[row] / wicketsTaken[row];
+            case ECONOMY_RATE -> runsConceded[row] / oversBowled[row];
+        };
+    }
+
+    private boolean hasStat(PlayerStat stat, int row) {
+        return switch (stat) {
+            case BATTING_AVERAGE -> matchesPlayed[row] > 0;
+            case STRIKE_RATE -> ballsFaced[row] > 0;
+            case BOWLING_AVERAGE -> wicketsTaken[row] > 0;
+            case ECONOMY_RATE -> oversBowled[row] > 0;
+            default -> true;
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import application.Main;
+
+// Applies a sale decided by the AuctionEngine to this program's databases, as one in-memory transaction.
+//
+// A sale changes the player (club, final bid price, salary), the club's player list and position counts and
+// the club's budget. settle() makes all of those changes or none (a failure puts the old values back), and
+// hands the sale to the DatabaseJournal as a single SALE record: the journal's background thread writes it
+// with the other pending records in one batch and one fsync, so the caller (the FX thread, the engine thread)
+// never waits for the disk. A sale which is already applied is not applied twice (the same sale is repeated
+// in every broadcast until the next player starts).
+//
+// Only the program which runs the auction saves the sale (settle). The club and viewer programs share the
+// same data files, so they only bring their own copies up to date (applyRemote) and do not write them again.
+// When a storage server owns the files, it settles every sale itself and settle() only updates this program.
+public class SaleSettlement {
+    public enum Result {
+        SETTLED,
+        ALREADY_SETTLED,
+        UNKNOWN_PLAYER,
+        UNKNOWN_CLUB,
+        FAILED
+    }
+
+    private static final Object lock = PersistenceScheduler.getLock();     // one sale at a time, and no flush takes half of one
+
+
+    private SaleSettlement() {
+    }
+
+
+    // apply and journal the sale:
+    public static Result settle(String playerName, String clubName, int price) {
+        if (DatabaseJournal.isRemote()) return applyRemote(playerName, clubName, price);
+
+        synchronized (lock) {
+            DatabaseJournal.beginChange();
+            Result result = apply(playerName, clubName, price);
+            if (result == Result.SETTLED) {
+                DatabaseJournal.playerSale(Main.playerDatabase.getPlayer(playerName), Main.clubDatabase.getClub(clubName));
+            }
+            return result;
+        }
+    }
+
+    // apply a sale saved by another program (the one running the auction): nothing is journaled, and the
+    // databases are not left dirty by it, so this program does not rewrite the files with the same sale
+    public static Result applyRemote(String playerName, String clubName, int price) {
+        synchronized (lock) {
+            boolean playersDirty = Main.playerDatabase.isDirty();
+            boolean clubsDirty = Main.clubDatabase.isDirty();
+
+            Result result = apply(playerName, clubName, price);
+
+            if (!playersDirty) Main.playerDatabase.clearDirty();
+            if (!clubsDirty) Main.clubDatabase.clearDirty();
+            return result;
+        }
+    }
+
+
+
+    private static Result apply(String playerName, String clubName, int price) {
+        Player player = Main.playerDatabase.getPlayer(playerName);
+        if (player == null) return Result.UNKNOWN_PLAYER;
+        Club club = Main.clubDatabase.getClub(clubName);
+        if (club == null) return Result.UNKNOWN_CLUB;
+
+        if (club.isPresentPlayer(player.getName()) && player.getFinalBidPrice() == price) {
+            return Result.ALREADY_SETTLED;
+        }
+
+        // the old values, to undo a half applied sale:
+        int oldFinalBidPrice = player.getFinalBidPrice();
+        int oldSalary = player.getSalary();
+        int oldBudget = club.getBudget();
+        Club oldClub = player.getClub().isEmpty() || player.getClubCode() == club.getClubCode()
+                ? null : Main.clubDatabase.getClub(player.getClub());
+
+        try {
+            if (oldClub != null) oldClub.removePlayer(player);
+
+            player.setFinalBidPrice(price);
+            player.setSalary(price);
+            club.addNewPlayer(player);                          // also sets the player's club and the unsold list
+            Main.playerDatabase.onPlayerSold(player);
+            club.setBudget(oldBudget - price);
+            return Result.SETTLED;
+
+        } catch (RuntimeException e) {
+            System.err.println("Could not settle the sale of " + playerName + " to " + clubName + ": " + e.getMessage());
+
+            if (club.isPresentPlayer(player.getName())) club.removePlayer(player);
+            if (oldClub != null) oldClub.addNewPlayer(player);
+            player.setFinalBidPrice(oldFinalBidPrice);
+            player.setSalary(oldSalary);
+            club.setBudget(oldBudget);
+            return Result.FAILED;
+        }
+    }
+}
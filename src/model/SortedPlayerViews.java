@@ -0,0 +1,98 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// One sorted copy of the player list per PlayerSortKey, kept in order as players are added, removed or changed.
+//
+// The lists are sorted once, on the first listing after the database is loaded (so startup does not pay for
+// it); after that a change moves one player (a binary search for the new position), so a listing never sorts.
+// Descending order is the same list read backwards.
+class SortedPlayerViews {
+    private final Map<PlayerSortKey, List<Player>> views = new EnumMap<>(PlayerSortKey.class);
+    private List<Player> unsorted;              // the database's players, until they are sorted on first use
+
+
+    SortedPlayerViews() {
+        for (PlayerSortKey key : PlayerSortKey.values()) {
+            views.put(key, new ArrayList<>());
+        }
+    }
+
+
+    // sort all players again on the next listing (after loading the database):
+    void rebuild(List<Player> players) {
+        for (List<Player> view : views.values()) view.clear();
+        unsorted = players;
+    }
+
+    private void sortIfNeeded() {
+        if (unsorted == null) return;
+        for (PlayerSortKey key : PlayerSortKey.values()) {
+            List<Player> view = views.get(key);
+            view.addAll(unsorted);
+            view.sort(key.getComparator());
+        }
+        unsorted = null;
+    }
+
+    // (until the first listing the changes are already in the players which will be sorted)
+    void add(Player player) {
+        if (unsorted != null) return;
+        for (PlayerSortKey key : PlayerSortKey.values()) {
+            insert(views.get(key), player, key);
+        }
+    }
+
+    void remove(Player player) {
+        if (unsorted != null) return;
+        for (List<Player> view : views.values()) {
+            removeFrom(view, player);
+        }
+    }
+
+    // the player's key field has changed: move it to its new position
+    void update(Player player, PlayerSortKey key) {
+        if (unsorted != null) return;
+        List<Player> view = views.get(key);
+        if (removeFrom(view, player)) {
+            insert(view, player, key);
+        }
+    }
+
+
+    // read-only, in ascending or descending order of the key:
+    List<Player> get(PlayerSortKey key, boolean descending) {
+        sortIfNeeded();
+        List<Player> view = Collections.unmodifiableList(views.get(key));
+        return descending ? view.reversed() : view;
+    }
+
+
+
+    // insert after the players with an equal key:
+    private static void insert(List<Player> view, Player player, PlayerSortKey key) {
+        int low = 0;
+        int high = view.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key.getComparator().compare(view.get(mid), player) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        view.add(low, player);
+    }
+
+    // by identity: the player's key may already have changed, so it can not be found by a binary search
+    private static boolean removeFrom(List<Player> view, Player player) {
+        for (int i = 0; i < view.size(); i++) {
+            if (view.get(i) == player) {
+                view.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+}
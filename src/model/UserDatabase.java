@@ -8,7 +8,7 @@ public class UserDatabase {
     private static List<User> users = new ArrayList<>();
 
     public static void loadUsers() {
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE))) {
+        try (BufferedReader br = new BufferedReader(new FileReader(Constants.dataFile(FILE)))) {
             String line;
             while ((line = br.readLine()) != null) {
                 String[] parts = line.split(",");
@@ -94,7 +94,7 @@ public class UserDatabase {
 
     public static boolean updateUserDatabase() {
         try {
-            BufferedWriter bw = new BufferedWriter(new FileWriter("LoginInfo.txt"));
+            BufferedWriter bw = new BufferedWriter(new FileWriter(Constants.dataFile(FILE)));
             for (User user : users) {
                 bw.write(user.getType() + ",");
                 bw.write(user.getUsername() + ",");